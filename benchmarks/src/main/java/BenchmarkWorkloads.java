@@ -0,0 +1,107 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * Pont entre les benchmarks JMH et le moteur.
+ *
+ * JMH refuse les benchmarks du package par defaut et une classe d'un package nommé ne peut pas utiliser
+ * les classes du package par defaut (Plateau, Move...). Cette classe est donc dans le package par defaut:
+ * chaque methode prepare un plateau et retourne l'operation a mesurer sous forme d'IntSupplier.
+ * loa.bench.Workloads les appelle par reflexion une seule fois, dans le @Setup, la mesure n'appelle
+ * ensuite que getAsInt().
+ * */
+public final class BenchmarkWorkloads {
+
+    /** positions de reference au format du serveur (A8 ... H1), playerMax joue les O. */
+    public static final Map<String, String> POSITIONS = new LinkedHashMap<>();
+
+    static {
+        POSITIONS.put("opening", Plateau.START_POSITION);
+        POSITIONS.put("midgame", "0222000000000040400000044020000440002444400224000000200000222200");
+        POSITIONS.put("endgame", "0200000002440000000000040040004400222404042224000002000000200000");
+    }
+
+    private static final int SEARCH_TABLE_MB = 4;
+    private static final long SEARCH_TIME_BUDGET_MS = 3_600_000;
+
+    private BenchmarkWorkloads() {
+    }
+
+    private static Plateau plateau(String name) {
+        String position = POSITIONS.get(name);
+        if (position == null) {
+            throw new IllegalArgumentException("position inconnue: " + name);
+        }
+        Plateau plateau = new Plateau(position);
+        plateau.setPlayers('1');
+        return plateau;
+    }
+
+    private static int[] allMovements(Plateau plateau, Player joueur) {
+        int[] mouvements = new int[Plateau.MAX_MOVEMENTS];
+        return Arrays.copyOf(mouvements, plateau.generateMovements(joueur.getCurrent(), mouvements, 0));
+    }
+
+    /**
+     * tous les coups du joueur qui a le trait, dans un tampon alloué une fois comme ceux de la recherche.
+     * */
+    public static IntSupplier generateMovements(String name) {
+        Plateau plateau = plateau(name);
+        int[] mouvements = new int[Plateau.MAX_MOVEMENTS];
+        return () -> plateau.generateMovements(plateau.playerMax.getCurrent(), mouvements, 0);
+    }
+
+    /**
+     * evaluation complete, sans le cache.
+     * */
+    public static IntSupplier evaluate(String name) {
+        Plateau plateau = plateau(name);
+        return () -> plateau.computeEvaluation(plateau.playerMax);
+    }
+
+    /**
+     * evaluation a travers le cache (toujours un succes apres le premier appel).
+     * */
+    public static IntSupplier evaluateCached(String name) {
+        Plateau plateau = plateau(name);
+        return () -> plateau.evaluate(plateau.playerMax);
+    }
+
+    /**
+     * une paire play/undoPlay, en passant d'un coup legal au suivant a chaque appel.
+     * */
+    public static IntSupplier playUndo(String name) {
+        Plateau plateau = plateau(name);
+        int[] mouvements = allMovements(plateau, plateau.playerMax);
+        return new IntSupplier() {
+            private int next;
+
+            @Override
+            public int getAsInt() {
+                int mouvement = mouvements[next];
+                next = next + 1 == mouvements.length ? 0 : next + 1;
+                plateau.play(mouvement, plateau.playerMax);
+                plateau.undoPlay(mouvement, plateau.playerMax);
+                return mouvement;
+            }
+        };
+    }
+
+    /**
+     * recherche a profondeur fixe, tables vidées avant chaque recherche pour mesurer toujours le meme travail.
+     * */
+    public static IntSupplier search(String name, int depth) {
+        Plateau plateau = plateau(name);
+        TranspositionTable table = new TranspositionTable(SEARCH_TABLE_MB);
+        EvaluationCache cache = new EvaluationCache(SEARCH_TABLE_MB);
+        plateau.setTranspositionTable(table);
+        plateau.setEvaluationCache(cache);
+        return () -> {
+            table.clear();
+            cache.clear();
+            return plateau.iterativeDeepening(SEARCH_TIME_BUDGET_MS, depth);
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package loa.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Operations de base du plateau, en ns/op, sur les positions de BenchmarkWorkloads.POSITIONS.
+ *
+ * mvn -B package
+ * java -jar benchmarks/target/benchmarks.jar PlateauBenchmark -prof gc
+ *
+ * -prof gc ajoute le taux d'allocation (gc.alloc.rate.norm, octets par operation).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlateauBenchmark {
+
+    @Param({"opening", "midgame", "endgame"})
+    public String position;
+
+    private IntSupplier generateMovements;
+    private IntSupplier evaluate;
+    private IntSupplier evaluateCached;
+    private IntSupplier playUndo;
+
+    @Setup
+    public void setup() {
+        generateMovements = Workloads.create("generateMovements", position);
+        evaluate = Workloads.create("evaluate", position);
+        evaluateCached = Workloads.create("evaluateCached", position);
+        playUndo = Workloads.create("playUndo", position);
+    }
+
+    @Benchmark
+    public int generateMovements() {
+        return generateMovements.getAsInt();
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return evaluate.getAsInt();
+    }
+
+    @Benchmark
+    public int evaluateCached() {
+        return evaluateCached.getAsInt();
+    }
+
+    @Benchmark
+    public int playUndo() {
+        return playUndo.getAsInt();
+    }
+}
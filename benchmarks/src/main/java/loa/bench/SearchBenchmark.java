@@ -0,0 +1,49 @@
+package loa.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Recherche algoMinMax a profondeur fixe (approfondissement iteratif jusqu'a depth), en ms/op.
+ * La table de transposition et le cache d'evaluation sont vidés avant chaque recherche.
+ *
+ * java -jar benchmarks/target/benchmarks.jar SearchBenchmark -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"opening", "midgame", "endgame"})
+    public String position;
+
+    @Param({"4"})
+    public int depth;
+
+    private IntSupplier search;
+
+    @Setup
+    public void setup() {
+        search = Workloads.create("search", position, depth);
+    }
+
+    @Benchmark
+    public int algoMinMax() {
+        return search.getAsInt();
+    }
+}
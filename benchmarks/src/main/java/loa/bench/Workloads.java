@@ -0,0 +1,29 @@
+package loa.bench;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Acces par reflexion a BenchmarkWorkloads, qui est dans le package par defaut comme le moteur.
+ */
+final class Workloads {
+
+    private Workloads() {
+    }
+
+    static IntSupplier create(String method, String position) {
+        return invoke(method, new Class<?>[] {String.class}, position);
+    }
+
+    static IntSupplier create(String method, String position, int depth) {
+        return invoke(method, new Class<?>[] {String.class, int.class}, position, depth);
+    }
+
+    private static IntSupplier invoke(String method, Class<?>[] types, Object... args) {
+        try {
+            Class<?> workloads = Class.forName("BenchmarkWorkloads");
+            return (IntSupplier) workloads.getMethod(method, types).invoke(null, args);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("impossible de preparer le benchmark " + method, e);
+        }
+    }
+}
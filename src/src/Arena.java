@@ -0,0 +1,262 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Arene: parties moteur contre moteur entre deux configurations (voir EngineConfig), sans reseau.
+ *
+ * Les parties tournent en parallele sur tous les coeurs, chacune sur ses propres Plateau. Chaque ouverture est
+ * tirée au hasard (quelques demi-coups legaux depuis la position de depart) puis jouée deux fois, les couleurs
+ * inversées, pour que l'avantage d'une ouverture ne compte pour aucun des deux moteurs.
+ *
+ * Le rapport donne le score de A (victoire 1, nulle 1/2) avec son intervalle de confiance a 95%,
+ * la difference d'Elo correspondante et les noeuds par seconde de chaque moteur: c'est ce qui dit si
+ * une optimisation de vitesse rend le moteur plus fort, et non seulement plus rapide.
+ *
+ * java Arena <parties> <configuration A> <configuration B> [threads] [demi-coups aleatoires]
+ *      exple: java Arena 1000 temps=100 temps=100,mobilite=12
+ *             java Arena 200 temps=100 temps=100,moteur=mcts     (alpha-beta contre Monte Carlo)
+ * */
+public class Arena {
+
+    /** au dela la partie est nulle */
+    private static final int MAX_PLIES = 200;
+    private static final int TABLE_MB = 8;
+    private static final int CACHE_MB = 2;
+
+    private final int randomPlies;
+    /** tables de chaque moteur, une paire par thread: reutilisées d'une partie a l'autre */
+    private final ThreadLocal<Engine[]> engines;
+
+    private int wins;
+    private int draws;
+    private int losses;
+    private final long[] nodes = new long[2];
+    private final long[] searchNanos = new long[2];
+    private final long[] moves = new long[2];
+    private final long[] depths = new long[2];
+
+    public Arena(EngineConfig configA, EngineConfig configB, int randomPlies) {
+        this.randomPlies = randomPlies;
+        this.engines = ThreadLocal.withInitial(() -> new Engine[] {new Engine(0, configA), new Engine(1, configB)});
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int parties = Integer.parseInt(args[0]);
+        EngineConfig configA = EngineConfig.parse(args[1]);
+        EngineConfig configB = EngineConfig.parse(args[2]);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int randomPlies = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+
+        System.out.println("A: " + configA);
+        System.out.println("B: " + configB);
+        Arena arena = new Arena(configA, configB, randomPlies);
+        long start = System.nanoTime();
+        arena.run(parties, threads);
+        System.out.println(arena.report() + " en " + (System.nanoTime() - start) / 1_000_000_000 + " s");
+    }
+
+    /**
+     * joue parties parties (arrondi au nombre pair superieur) sur threads threads.
+     * */
+    public void run(int parties, int threads) throws InterruptedException {
+        int pairs = (parties + 1) / 2;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int pair = 0; pair < pairs; pair++) {
+                int seed = pair;
+                results.add(pool.submit(() -> playPair(seed)));
+            }
+            int done = 0;
+            for (Future<?> result : results) {
+                result.get();
+                if (++done % Math.max(1, pairs / 10) == 0 && done < pairs) {
+                    System.out.println(report());
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * la meme ouverture deux fois: A avec les blancs puis A avec les noirs.
+     * */
+    private void playPair(int seed) {
+        int[] ouverture = randomOpening(new Random(seed));
+        Engine[] pair = engines.get();
+        record(playGame(ouverture, pair[0], pair[1]));
+        record(-playGame(ouverture, pair[1], pair[0]));
+    }
+
+    /**
+     * retourne 1 si les blancs gagnent, -1 si les noirs gagnent, 0 pour une nulle.
+     * */
+    private int playGame(int[] ouverture, Engine blanc, Engine noir) {
+        Plateau partie = startPosition();
+        Player joueur = partie.playerMax;
+        for (int mouvement : ouverture) {
+            partie.play(mouvement, joueur);
+            joueur = joueur == partie.playerMax ? partie.playerMin : partie.playerMax;
+        }
+        blanc.newGame();
+        noir.newGame();
+
+        for (int ply = ouverture.length; ply < MAX_PLIES; ply++) {
+            Engine engine = joueur == partie.playerMax ? blanc : noir;
+            int mouvement = engine.chooseMove(partie, joueur.getCurrent());
+            if (mouvement == Move.NONE) {
+                return 0;
+            }
+            partie.play(mouvement, joueur);
+
+            char gagnant = partie.winnerAfter(joueur.getCurrent());
+            if (gagnant != 0) {
+                return gagnant == partie.playerMax.getCurrent() ? 1 : -1;
+            }
+            joueur = joueur == partie.playerMax ? partie.playerMin : partie.playerMax;
+        }
+        return 0;
+    }
+
+    private int[] randomOpening(Random random) {
+        int[] mouvements = new int[Plateau.MAX_MOVEMENTS];
+        while (true) {
+            Plateau partie = startPosition();
+            Player joueur = partie.playerMax;
+            int[] ouverture = new int[randomPlies];
+            int ply = 0;
+            for (; ply < randomPlies; ply++) {
+                int count = partie.generateMovements(joueur.getCurrent(), mouvements, 0);
+                if (count == 0) {
+                    break;
+                }
+                ouverture[ply] = mouvements[random.nextInt(count)];
+                partie.play(ouverture[ply], joueur);
+                if (partie.winnerAfter(joueur.getCurrent()) != 0) {
+                    break;
+                }
+                joueur = joueur == partie.playerMax ? partie.playerMin : partie.playerMax;
+            }
+            // une ouverture qui finit la partie ne sert a rien: on en tire une autre
+            if (ply == randomPlies) {
+                return ouverture;
+            }
+        }
+    }
+
+    /**
+     * blancs (O) au trait, playerMax = blancs.
+     * */
+    private static Plateau startPosition() {
+        Plateau partie = new Plateau(Plateau.START_POSITION);
+        partie.setPlayers('1');
+        return partie;
+    }
+
+    /**
+     * resultat du point de vue de A.
+     * */
+    private synchronized void record(int result) {
+        if (result > 0) {
+            wins++;
+        } else if (result < 0) {
+            losses++;
+        } else {
+            draws++;
+        }
+    }
+
+    private synchronized void recordSearch(int i, long searchNodes, long nanos, int depth) {
+        nodes[i] += searchNodes;
+        searchNanos[i] += nanos;
+        moves[i]++;
+        depths[i] += depth;
+    }
+
+    /**
+     * score de A avec intervalle de confiance a 95% (approximation normale), Elo et vitesse de chaque moteur.
+     * */
+    public synchronized String report() {
+        int games = wins + draws + losses;
+        if (games == 0) {
+            return "aucune partie";
+        }
+        double score = (wins + 0.5 * draws) / games;
+        double variance = (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2)
+                + losses * Math.pow(score, 2)) / games;
+        double margin = 1.96 * Math.sqrt(variance / games);
+
+        return String.format("%d parties, A +%d =%d -%d: score %.1f%% ± %.1f%% (Elo %s [%s, %s]), "
+                        + "A %d noeuds/s profondeur %.1f, B %d noeuds/s profondeur %.1f",
+                games, wins, draws, losses, 100 * score, 100 * margin,
+                elo(score), elo(score - margin), elo(score + margin),
+                nodesPerSecond(0), averageDepth(0), nodesPerSecond(1), averageDepth(1));
+    }
+
+    private static String elo(double score) {
+        if (score <= 0) {
+            return "-inf";
+        }
+        if (score >= 1) {
+            return "+inf";
+        }
+        // + 0.0: pas de "-0" pour un score de 50%
+        return String.format("%+.0f", -400 * Math.log10(1 / score - 1) + 0.0);
+    }
+
+    private long nodesPerSecond(int i) {
+        return searchNanos[i] == 0 ? 0 : nodes[i] * 1_000_000_000L / searchNanos[i];
+    }
+
+    private double averageDepth(int i) {
+        return moves[i] == 0 ? 0 : (double) depths[i] / moves[i];
+    }
+
+    /**
+     * un moteur: sa configuration et ses tables, utilisé par un seul thread a la fois.
+     * */
+    private final class Engine {
+
+        private final int index;
+        private final EngineConfig config;
+        private final TranspositionTable table = new TranspositionTable(TABLE_MB);
+        private final EvaluationCache cache = new EvaluationCache(CACHE_MB);
+
+        private Engine(int index, EngineConfig config) {
+            this.index = index;
+            this.config = config;
+        }
+
+        /**
+         * les scores de la table sont du point de vue de la couleur jouée, qui change d'une partie a l'autre.
+         * */
+        void newGame() {
+            table.clear();
+        }
+
+        int chooseMove(Plateau partie, char couleur) {
+            Plateau recherche = new Plateau(partie);
+            recherche.setPlayers(couleur == 'O' ? '1' : '2');
+            recherche.setConfig(config);
+            recherche.setTranspositionTable(table);
+            recherche.setEvaluationCache(cache);
+
+            long start = System.nanoTime();
+            if (config.isMonteCarlo()) {
+                MonteCarloSearch.search(recherche, config.getTimeMillis());
+            } else {
+                recherche.iterativeDeepening(config.getTimeMillis(), config.getMaxDepth());
+            }
+            recordSearch(index, recherche.getNodes(), System.nanoTime() - start, recherche.getCompletedDepth());
+            return recherche.moveToSend;
+        }
+    }
+}
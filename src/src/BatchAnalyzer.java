@@ -0,0 +1,206 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analyse d'un fichier de positions, ligne par ligne, sans jamais le charger en memoire.
+ *
+ * Chaque ligne est une position au format du serveur (les 64 chiffres que prend Plateau(String)), suivie
+ * optionnellement du joueur qui a le trait, 1 (blancs, O) ou 2 (noirs, X) comme setPlayers, 1 par defaut.
+ * Les lignes vides et celles qui commencent par # sont ignorées.
+ *
+ * Les positions sont analysées en parallele, une par thread. Il n'y en a jamais plus de IN_FLIGHT_PER_THREAD
+ * par thread entre la lecture et l'ecriture: la lecture attend quand les threads ou l'ecriture ne suivent pas,
+ * et la memoire reste la meme quelle que soit la taille du fichier. Les resultats sont ecrits au fur et a mesure,
+ * dans l'ordre du fichier:
+ *      position joueur coup score noeuds profondeur
+ * le score etant du point de vue du joueur qui a le trait (coup "-" et profondeur 0 pour l'evaluation seule).
+ * Une ligne illisible donne "position erreur message" et l'analyse continue.
+ *
+ * La recherche n'a pas de limite de temps: elle est bornée par la profondeur ou le nombre de noeuds de la
+ * configuration, et la table de transposition est vidée avant chaque position. Le resultat d'une position ne
+ * depend donc ni de la machine, ni du nombre de threads, ni des positions analysées avant elle.
+ *
+ * java BatchAnalyzer <positions|-> <resultats|-> [configuration] [threads]
+ *      configuration: EngineConfig, profondeur=4 par defaut; "eval" pour l'evaluation seule.
+ *      exples: java BatchAnalyzer parties.txt - profondeur=5
+ *              java BatchAnalyzer parties.txt analyse.txt noeuds=200000,mobilite=12 8
+ * */
+public class BatchAnalyzer {
+
+    private static final int IN_FLIGHT_PER_THREAD = 4;
+    private static final int TABLE_MB = 4;
+    private static final int CACHE_MB = 4;
+    private static final long PROGRESS_INTERVAL_NANOS = 10_000_000_000L;
+
+    private final EngineConfig config;
+    private final boolean evaluationOnly;
+    private final int threads;
+    /** tables de chaque thread d'analyse, reutilisées d'une position a l'autre */
+    private final ThreadLocal<TranspositionTable> tables = ThreadLocal.withInitial(() -> new TranspositionTable(TABLE_MB));
+    private final ThreadLocal<EvaluationCache> caches = ThreadLocal.withInitial(() -> new EvaluationCache(CACHE_MB));
+
+    /** resultats arrivés avant ceux des lignes precedentes, au plus threads * IN_FLIGHT_PER_THREAD */
+    private final Map<Long, Result> pending = new HashMap<>();
+    private long nextToWrite;
+    private long totalNodes;
+    private IOException writeError;
+
+    public BatchAnalyzer(EngineConfig config, boolean evaluationOnly, int threads) {
+        if (config.isMonteCarlo()) {
+            throw new IllegalArgumentException("moteur=mcts: MonteCarloSearch n'est borné que par le temps");
+        }
+        if (!evaluationOnly && config.getMaxDepth() == Plateau.MAX_DEPTH && config.getNodeLimit() == 0) {
+            throw new IllegalArgumentException("profondeur ou noeuds requis: la recherche n'a pas de limite de temps");
+        }
+        this.config = config;
+        this.evaluationOnly = evaluationOnly;
+        this.threads = Math.max(1, threads);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String spec = args.length > 2 ? args[2] : "profondeur=4";
+        boolean evaluationOnly = spec.equals("eval");
+        EngineConfig config = evaluationOnly ? EngineConfig.DEFAULT : EngineConfig.parse(spec);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        BatchAnalyzer analyzer = new BatchAnalyzer(config, evaluationOnly, threads);
+        try (BufferedReader input = args[0].equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII))
+                : Files.newBufferedReader(Path.of(args[0]), StandardCharsets.US_ASCII);
+             Writer output = args[1].equals("-")
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII))
+                : Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.US_ASCII)) {
+            long start = System.nanoTime();
+            long positions = analyzer.run(input, output);
+            long elapsed = System.nanoTime() - start;
+            System.err.println(analyzer.progress(positions, elapsed));
+        }
+    }
+
+    /**
+     * analyse toutes les positions de input et ecrit leurs resultats dans output; retourne le nombre de positions.
+     * */
+    public long run(BufferedReader input, Writer output) throws IOException, InterruptedException {
+        int inFlight = threads * IN_FLIGHT_PER_THREAD;
+        Semaphore places = new Semaphore(inFlight);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "analyse");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        long nextProgress = start + PROGRESS_INTERVAL_NANOS;
+        long index = 0;
+        try {
+            String line;
+            while ((line = input.readLine()) != null) {
+                String position = line.trim();
+                if (position.isEmpty() || position.startsWith("#")) {
+                    continue;
+                }
+                // une place se libere quand un resultat est ecrit: c'est la contre-pression sur la lecture
+                places.acquire();
+                checkWriteError();
+                long numero = index++;
+                pool.execute(() -> write(numero, analyze(position), output, places));
+
+                if (System.nanoTime() > nextProgress) {
+                    System.err.println(progress(numero, System.nanoTime() - start));
+                    nextProgress = System.nanoTime() + PROGRESS_INTERVAL_NANOS;
+                }
+            }
+            // toutes les places rendues: tout est ecrit
+            places.acquire(inFlight);
+            checkWriteError();
+            output.flush();
+            return index;
+        } finally {
+            pool.shutdownNow();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * ligne de resultat d'une ligne du fichier, et noeuds cherchés pour l'obtenir (0 pour une erreur ou l'evaluation seule).
+     * */
+    record Result(String line, long nodes) {
+    }
+
+    /**
+     * le resultat d'une ligne du fichier.
+     * */
+    Result analyze(String line) {
+        String[] fields = line.split("\\s+");
+        String position = fields[0];
+        try {
+            char joueur = fields.length > 1 ? fields[1].charAt(0) : '1';
+            if (!position.matches("[024]{64}") || (joueur != '1' && joueur != '2')) {
+                throw new IllegalArgumentException("64 chiffres 0, 2 ou 4 puis le joueur 1 ou 2 attendus");
+            }
+            Plateau plateau = new Plateau(position);
+            plateau.setPlayers(joueur);
+            plateau.setConfig(config);
+            plateau.setEvaluationCache(caches.get());
+            if (evaluationOnly) {
+                return new Result(position + " " + joueur + " - " + plateau.evaluate(plateau.playerMax) + " 0 0", 0);
+            }
+
+            // les scores de la table sont du point de vue de playerMax, qui change d'une position a l'autre
+            TranspositionTable table = tables.get();
+            table.clear();
+            plateau.setTranspositionTable(table);
+            int score = plateau.searchToDepth(config.getMaxDepth());
+            long nodes = plateau.getNodes();
+            return new Result(position + " " + joueur + " " + Move.toString(plateau.moveToSend) + " " + score + " "
+                    + nodes + " " + plateau.getCompletedDepth(), nodes);
+        } catch (RuntimeException e) {
+            return new Result(position + " erreur " + e.getMessage(), 0);
+        }
+    }
+
+    /**
+     * range le resultat de la ligne numero et ecrit tous ceux qui suivent la derniere ligne ecrite.
+     * Le thread qui complete la suite ecrit pour les autres, chaque ligne ecrite rend sa place a la lecture.
+     * */
+    private synchronized void write(long numero, Result result, Writer output, Semaphore places) {
+        pending.put(numero, result);
+        for (Result next = pending.remove(nextToWrite); next != null; next = pending.remove(nextToWrite)) {
+            try {
+                if (writeError == null) {
+                    output.write(next.line());
+                    output.write('\n');
+                }
+            } catch (IOException e) {
+                writeError = e;
+            }
+            totalNodes += next.nodes();
+            nextToWrite++;
+            places.release();
+        }
+    }
+
+    private synchronized void checkWriteError() throws IOException {
+        if (writeError != null) {
+            throw writeError;
+        }
+    }
+
+    private synchronized String progress(long positions, long elapsedNanos) {
+        long millis = Math.max(1, elapsedNanos / 1_000_000);
+        return positions + " positions en " + millis + " ms (" + positions * 1000 / millis
+                + " par seconde), " + totalNodes + " noeuds, " + threads + " threads";
+    }
+}
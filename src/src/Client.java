@@ -0,0 +1,312 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Le joueur: recoit les messages du serveur (voir ServerMessage) et repond avec ses coups.
+ * Le reseau est entierement dans ServerConnection, ce qui reste ici ne fait que jouer.
+ * */
+class Client {
+
+	private final long tempsParCoup;
+	private final ParallelSearch recherche;
+	private final OpeningBook livre;
+	private final Ponder ponder;
+	private final boolean reflechirPendantAdversaire;
+	private final BufferedReader console;
+	// la table sert d'une partie a l'autre, elle est vidée a chaque nouvelle partie
+	private final TranspositionTable table;
+	private final EvaluationCache cache;
+	// moteur et reglages de chaque nouvelle partie (alpha-beta ou Monte Carlo, voir EngineConfig)
+	private EngineConfig config = EngineConfig.DEFAULT;
+	// compteurs des recherches publiés par JMX, et une ligne "metriques" par coup dans le journal
+	private final SearchMetrics metriques = SearchMetrics.register();
+	private int numeroCoup = 0;
+	private Plateau plateau = new Plateau();
+	private int dernierCoup = Move.NONE;
+	// coups refusés par le serveur (commande 4) dans la position actuelle
+	private final List<Integer> coupsRefuses = new ArrayList<>();
+	private final int[] mouvements = new int[Plateau.MAX_MOVEMENTS];
+
+	Client(long tempsParCoup, ParallelSearch recherche, OpeningBook livre, boolean reflechirPendantAdversaire, BufferedReader console,
+			TranspositionTable table, EvaluationCache cache) {
+		this.tempsParCoup = tempsParCoup;
+		this.recherche = recherche;
+		this.livre = livre;
+		this.ponder = new Ponder(recherche);
+		this.reflechirPendantAdversaire = reflechirPendantAdversaire;
+		this.console = console;
+		this.table = table;
+		this.cache = cache;
+	}
+
+	public static void main(String[] args) {
+		// temps de reflexion par coup en millisecondes, optionnel: java Client 2500
+		long tempsParCoup = args.length > 0 ? Long.parseLong(args[0]) : Plateau.DEFAULT_TIME_BUDGET_MS;
+		// nombre de threads de recherche, optionnel: java Client 2500 16 (par defaut un par coeur)
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		// livre d'ouverture genere par OpeningBookGenerator, optionnel: java Client 2500 16 livre.bin
+		OpeningBook livre = ouvrirLivre(Path.of(args.length > 2 ? args[2] : "livre.bin"));
+		// reflexion pendant le temps de l'adversaire, desactivable: java Client 2500 16 livre.bin sans-ponder
+		boolean reflechirPendantAdversaire = args.length <= 3 || !args[3].equals("sans-ponder");
+		// reglages du moteur, optionnel: java Client 2500 16 livre.bin ponder moteur=mcts
+		// (table=128,cache=32 pour la taille en Mo de la table de transposition et du cache d'evaluation)
+		EngineConfig config = args.length > 4 ? EngineConfig.parse(args[4]) : EngineConfig.DEFAULT;
+
+		BufferedReader console = new BufferedReader(new InputStreamReader(System.in));
+		Client client = new Client(tempsParCoup, new ParallelSearch(threads), livre, reflechirPendantAdversaire, console,
+				new TranspositionTable(config.getTableMb()), new EvaluationCache(config.getEvaluationCacheMb()));
+		client.setConfig(config);
+
+		System.out.println("Veillez entré l'adresse du serveur: ");
+		try (ServerConnection connexion = ServerConnection.connect("localhost", 8888)) {
+			client.run(connexion);
+		} catch (IOException e) {
+			System.out.println(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			client.shutdown();
+		}
+	}
+
+	/**
+	 * joue jusqu'a la fermeture de la connexion.
+	 * */
+	void run(ServerConnection connexion) throws InterruptedException {
+		while (true) {
+			ServerMessage message = connexion.take();
+			if (message.isEnd()) {
+				ponder.stop(Move.NONE);
+				return;
+			}
+			String reponse = handle(message);
+			if (reponse != null) {
+				connexion.send(reponse);
+				// la reflexion commence une fois le coup parti: elle ne le retarde pas
+				if (reflechirPendantAdversaire && dernierCoup != Move.NONE) {
+					ponder.start(plateau);
+				}
+			}
+		}
+	}
+
+	/**
+	 * s'applique a partir de la prochaine partie. Le cache d'evaluation ne doit pas servir a deux jeux de poids differents.
+	 * */
+	void setConfig(EngineConfig config) {
+		this.config = config;
+	}
+
+	void shutdown() {
+		ponder.shutdown();
+		recherche.shutdown();
+		metriques.unregister();
+	}
+
+	/**
+	 * traite un message du serveur et retourne ce qu'il faut lui envoyer, ou null s'il n'y a rien a repondre.
+	 * */
+	String handle(ServerMessage message) {
+		char cmd = message.getCommand();
+		System.out.println(cmd);
+		// le coup de l'adversaire (commande 3) est comparé au coup deviné, toute autre commande arrete la reflexion
+		if(cmd != ServerMessage.PLAY){
+			ponder.stop(Move.NONE);
+		}
+		dernierCoup = Move.NONE;
+		if(cmd != ServerMessage.INVALID_MOVE){
+			coupsRefuses.clear();
+		}
+
+		// Debut de la partie en joueur blanc
+		if(cmd == ServerMessage.NEW_GAME_WHITE){
+			System.out.println("Nouvelle partie! Vous jouer blanc, entrez votre premier coup : ");
+			nouvellePartie(message.getPayload(), cmd);
+			return jouer(false);
+		}
+
+		// Debut de la partie en joueur Noir
+		if(cmd == ServerMessage.NEW_GAME_BLACK){
+			System.out.println("Nouvelle partie! Vous jouer noir, attendez le coup des blancs");
+			nouvellePartie(message.getPayload(), cmd);
+			return null;
+		}
+
+		// Le serveur demande le prochain coup
+		// Le message contient aussi le dernier coup joue.
+		if(cmd == ServerMessage.PLAY){
+			String s = message.getPayload();
+			System.out.println("Dernier coup :"+ s);
+			int coupAdverse = plateau.toMove(s);
+			boolean ponderHit = ponder.stop(coupAdverse);
+			if(ponder.getPredictedMove() != Move.NONE){
+				System.out.println("Coup deviné: "+Move.toString(ponder.getPredictedMove())+(ponderHit ? " (ponder hit, profondeur "+ponder.getCompletedDepth()+" en "+ponder.getElapsedMillis()+" ms)" : " (raté)"));
+			}
+			plateau.play(coupAdverse, plateau.playerMin);
+			plateau.printPlateau();
+			System.out.println("Entrez votre coup : ");
+			String move = jouer(ponderHit);
+
+			System.out.println("*********************** Plateau apres avoir obtenu le coup et apre avoir joué:  ");
+			plateau.printPlateau();
+			return move;
+		}
+
+		// Le dernier coup est invalide: on l'annule et on demande un coup legal a la console,
+		// ou on joue le meilleur des autres coups s'il n'y a personne a la console
+		if(cmd == ServerMessage.INVALID_MOVE){
+			plateau.undoPlay(plateau.moveToSend, plateau.playerMax);
+			coupsRefuses.add(plateau.moveToSend);
+			System.out.println("Coup invalide, entrez un nouveau coup : ");
+			for (String ligne = lireConsole(); ligne != null; ligne = lireConsole()) {
+				int coup = coupConsole(ligne);
+				if (coup != Move.NONE) {
+					return envoyer(coup);
+				}
+				System.out.println("Coup illegal ou mal ecrit (exple D6-D8), entrez un nouveau coup : ");
+			}
+			int coup = meilleurAutreCoup();
+			return coup == Move.NONE ? null : envoyer(coup);
+		}
+
+		// La partie est terminée
+		if(cmd == ServerMessage.GAME_OVER){
+			System.out.println("Partie Terminé. Le dernier coup joué est: "+message.getPayload());
+			return lireConsole();
+		}
+		return null;
+	}
+
+	private void nouvellePartie(String configPlateau, char cmd) {
+		plateau = new Plateau(configPlateau);
+		plateau.setPlayers(cmd);
+		plateau.setConfig(config);
+		// les scores de la table sont du point de vue de notre couleur, qui a pu changer
+		table.clear();
+		plateau.setTranspositionTable(table);
+		plateau.setEvaluationCache(cache);
+		numeroCoup = 0;
+		plateau.printPlateau();
+	}
+
+	/**
+	 * choisit notre coup, le joue sur le plateau et retourne le coup a envoyer.
+	 * */
+	private String jouer(boolean ponderHit) {
+		String move = choisirCoup(ponderHit);
+		plateau.play(plateau.moveToSend, plateau.playerMax);
+		dernierCoup = plateau.moveToSend;
+		return move;
+	}
+
+	/**
+	 * coup du livre d'ouverture si la position y est, sinon recherche; le coup est rangé dans plateau.moveToSend.
+	 * Apres un ponder hit la recherche repart de la table remplie par la reflexion, et le coup de la reflexion
+	 * est gardé s'il vient d'une iteration plus profonde.
+	 * */
+	private String choisirCoup(boolean ponderHit) {
+		int coupDuLivre = livre == null ? Move.NONE : livre.lookup(plateau);
+		if (coupDuLivre != Move.NONE) {
+			plateau.moveToSend = coupDuLivre;
+			String move = Move.toString(coupDuLivre);
+			System.out.println("-------------Le best Move est: "+move+" (livre d'ouverture)");
+			System.out.println("metriques coup="+(++numeroCoup)+" joue="+move+" source=livre");
+			return move;
+		}
+		long debut = System.nanoTime();
+		recherche.search(plateau, tempsParCoup, Plateau.MAX_DEPTH);
+		long duree = System.nanoTime() - debut;
+		metriques.record(recherche.getStatistics(), duree);
+		int profondeur = plateau.getCompletedDepth();
+		if (ponderHit && ponder.getCompletedDepth() > profondeur) {
+			plateau.moveToSend = ponder.getMove();
+			profondeur = ponder.getCompletedDepth();
+		}
+		String move = Move.toString(plateau.moveToSend);
+		System.out.println("-------------Le best Move est: "+move+" (profondeur "+profondeur+")");
+		System.out.println("metriques coup="+(++numeroCoup)+" joue="+move+" source="+(ponderHit ? "ponder" : "recherche")
+				+" "+recherche.getStatistics().toLogLine(duree));
+		return move;
+	}
+
+	private String envoyer(int coup) {
+		plateau.moveToSend = coup;
+		plateau.play(coup, plateau.playerMax);
+		dernierCoup = coup;
+		return Move.toString(coup);
+	}
+
+	/**
+	 * coup legal de playerMax ecrit a la console (exple D6-D8), Move.NONE s'il est mal ecrit ou illegal.
+	 * */
+	private int coupConsole(String ligne) {
+		String cases = ligne.replaceAll("[\\s-]", "").toUpperCase();
+		if (!cases.matches("[A-H][1-8][A-H][1-8]")) {
+			return Move.NONE;
+		}
+		int from = Move.parseSquare(cases.substring(0, 2));
+		int to = Move.parseSquare(cases.substring(2));
+		for (int legal : plateau.generateMovements(from, plateau.playerMax.getCurrent())) {
+			if (Move.to(legal) == to) {
+				return legal;
+			}
+		}
+		return Move.NONE;
+	}
+
+	/**
+	 * sans personne a la console: chercher de nouveau redonnerait le coup refusé (meme position, meme table).
+	 * On prend le coup legal le mieux evalué apres l'avoir joué, parmi ceux que le serveur n'a pas encore refusés
+	 * dans cette position; s'il les a tous refusés, le mieux evalué de tous. Move.NONE s'il n'y a aucun coup.
+	 * */
+	private int meilleurAutreCoup() {
+		int count = plateau.generateMovements(plateau.playerMax.getCurrent(), mouvements, 0);
+		int meilleur = Move.NONE;
+		int meilleurScore = Integer.MIN_VALUE;
+		boolean tousRefuses = true;
+		for (int i = 0; i < count; i++) {
+			tousRefuses &= coupsRefuses.contains(mouvements[i]);
+		}
+		for (int i = 0; i < count; i++) {
+			int coup = mouvements[i];
+			if (!tousRefuses && coupsRefuses.contains(coup)) {
+				continue;
+			}
+			plateau.play(coup, plateau.playerMax);
+			int score = plateau.evaluate(plateau.playerMax);
+			plateau.undoPlay(coup, plateau.playerMax);
+			if (score > meilleurScore) {
+				meilleurScore = score;
+				meilleur = coup;
+			}
+		}
+		System.out.println("-------------Le best Move est: "+(meilleur == Move.NONE ? "aucun" : Move.toString(meilleur))+" (apres refus)");
+		return meilleur;
+	}
+
+	private String lireConsole() {
+		try {
+			return console.readLine();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static OpeningBook ouvrirLivre(Path fichier) {
+		if (!Files.exists(fichier)) {
+			return null;
+		}
+		try {
+			OpeningBook livre = OpeningBook.open(fichier);
+			System.out.println("Livre d'ouverture: "+livre.size()+" positions");
+			return livre;
+		} catch (IOException e) {
+			System.out.println("Livre d'ouverture ignoré: "+e.getMessage());
+			return null;
+		}
+	}
+}
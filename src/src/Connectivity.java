@@ -0,0 +1,69 @@
+/**
+ * Groupes de pions connectés (8-voisinage) calculés directement sur un bitboard de Plateau.
+ *
+ * Un groupe est trouvé par remplissage: on part d'un pion et on ajoute a chaque tour toutes les cases
+ * voisines du groupe qui contiennent un pion, jusqu'a ce que le groupe ne grandisse plus.
+ * Chaque tour est une dizaine d'operations sur des long, sans recursion ni allocation.
+ * */
+public final class Connectivity {
+
+    private static final long NOT_FILE_A = 0xFEFEFEFEFEFEFEFEL;
+    private static final long NOT_FILE_H = 0x7F7F7F7F7F7F7F7FL;
+
+    private Connectivity() {
+    }
+
+    /**
+     * les cases de bits plus toutes leurs voisines (horizontales, verticales et diagonales).
+     * */
+    public static long dilate(long bits) {
+        long row = bits | ((bits << 1) & NOT_FILE_A) | ((bits >>> 1) & NOT_FILE_H);
+        return row | (row << 8) | (row >>> 8);
+    }
+
+    /**
+     * le groupe de pions connectés qui contient seed.
+     * */
+    public static long group(long pieces, long seed) {
+        long group = seed & pieces;
+        while (true) {
+            long next = dilate(group) & pieces;
+            if (next == group) {
+                return group;
+            }
+            group = next;
+        }
+    }
+
+    /**
+     * vrai si tous les pions forment un seul groupe (condition de victoire). Un seul remplissage suffit.
+     * */
+    public static boolean isConnected(long pieces) {
+        return group(pieces, Long.lowestOneBit(pieces)) == pieces;
+    }
+
+    /**
+     * nombre de pions du plus grand groupe.
+     * */
+    public static int largestGroup(long pieces) {
+        int largest = 0;
+        while (pieces != 0) {
+            long group = group(pieces, Long.lowestOneBit(pieces));
+            largest = Math.max(largest, Long.bitCount(group));
+            pieces &= ~group;
+        }
+        return largest;
+    }
+
+    /**
+     * nombre de groupes separés.
+     * */
+    public static int componentCount(long pieces) {
+        int count = 0;
+        while (pieces != 0) {
+            pieces &= ~group(pieces, Long.lowestOneBit(pieces));
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * Reglages d'un moteur: poids de l'evaluation et parametres de la recherche.
+ *
+ * DEFAULT est la configuration du client: poids 25/10/15/10, quiescence, PVS, fenetre d'aspiration de 50,
+ * coup nul avec R = 2, reductions des coups tardifs a partir du 4e coup, pas d'elagage de futilité, temps de Plateau.
+ * moteur=mcts remplace l'alpha-beta par MonteCarloSearch; les reglages de la recherche alpha-beta ne servent alors plus,
+ * les poids de l'evaluation servent encore a juger les parties simulées coupées apres playout demi-coups.
+ * Une configuration ne change plus une fois créée: on en derive une autre avec parse, par exemple
+ * EngineConfig.parse("mobilite=12,profondeur=5") pour l'arene (voir Arena).
+ *
+ * Deux configurations n'evaluent pas pareil: elles ne doivent pas partager un EvaluationCache.
+ * */
+public final class EngineConfig {
+
+    public static final EngineConfig DEFAULT = new EngineConfig();
+
+    private int groupWeight = 25;
+    private int mobilityWeight = 10;
+    private int centerWeight = 15;
+    private int convergenceWeight = 10;
+    private int eulerWeight = 0;
+    private boolean quiescence = true;
+    private boolean pvs = true;
+    private int aspirationWindow = 50;
+    private int nullMoveReduction = 2;
+    private int lateMoveThreshold = 4;
+    private int futilityMargin = 0;
+    private boolean monteCarlo = false;
+    private int playoutPlies = 10;
+    private long timeMillis = Plateau.DEFAULT_TIME_BUDGET_MS;
+    private int maxDepth = Plateau.MAX_DEPTH;
+    private long nodeLimit = 0;
+    private int tableMb = Plateau.TRANSPOSITION_TABLE_MB;
+    private int evaluationCacheMb = Plateau.EVALUATION_CACHE_MB;
+
+    private EngineConfig() {
+    }
+
+    private EngineConfig(EngineConfig config) {
+        this.groupWeight = config.groupWeight;
+        this.mobilityWeight = config.mobilityWeight;
+        this.centerWeight = config.centerWeight;
+        this.convergenceWeight = config.convergenceWeight;
+        this.eulerWeight = config.eulerWeight;
+        this.quiescence = config.quiescence;
+        this.pvs = config.pvs;
+        this.aspirationWindow = config.aspirationWindow;
+        this.nullMoveReduction = config.nullMoveReduction;
+        this.lateMoveThreshold = config.lateMoveThreshold;
+        this.futilityMargin = config.futilityMargin;
+        this.monteCarlo = config.monteCarlo;
+        this.playoutPlies = config.playoutPlies;
+        this.timeMillis = config.timeMillis;
+        this.maxDepth = config.maxDepth;
+        this.nodeLimit = config.nodeLimit;
+        this.tableMb = config.tableMb;
+        this.evaluationCacheMb = config.evaluationCacheMb;
+    }
+
+    /**
+     * DEFAULT modifiée par une liste "cle=valeur" separée par des virgules (vide ou "defaut": DEFAULT).
+     * Clés: groupe, mobilite, centre, convergence, euler (poids), quiescence (oui/non), pvs (oui/non),
+     * aspiration (demi-largeur de la fenetre a la racine, 0 pour la fenetre complete),
+     * nullmove (reduction R du coup nul), lmr (nombre de coups cherchés avant de reduire les suivants),
+     * futilite (marge de l'elagage de futilité); 0 desactive chacun des trois,
+     * moteur (alphabeta ou mcts), playout (demi-coups d'une partie simulée avant de la juger par l'evaluation),
+     * temps (ms par coup), profondeur (profondeur maximale), noeuds (noeuds par recherche, 0 sans limite),
+     * table et cache (taille en Mo de la table de transposition et du cache d'evaluation).
+     * */
+    public static EngineConfig parse(String spec) {
+        EngineConfig config = new EngineConfig(DEFAULT);
+        if (spec.isBlank() || spec.equals("defaut")) {
+            return config;
+        }
+        for (String setting : spec.split(",")) {
+            String[] pair = setting.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("reglage sans valeur: " + setting);
+            }
+            String value = pair[1].trim();
+            switch (pair[0].trim()) {
+                case "groupe" -> config.groupWeight = Integer.parseInt(value);
+                case "mobilite" -> config.mobilityWeight = Integer.parseInt(value);
+                case "centre" -> config.centerWeight = Integer.parseInt(value);
+                case "convergence" -> config.convergenceWeight = Integer.parseInt(value);
+                case "euler" -> config.eulerWeight = Integer.parseInt(value);
+                case "quiescence" -> config.quiescence = parseSwitch(value);
+                case "pvs" -> config.pvs = parseSwitch(value);
+                case "aspiration" -> config.aspirationWindow = Integer.parseInt(value);
+                case "nullmove" -> config.nullMoveReduction = Integer.parseInt(value);
+                case "lmr" -> config.lateMoveThreshold = Integer.parseInt(value);
+                case "futilite" -> config.futilityMargin = Integer.parseInt(value);
+                case "moteur" -> config.monteCarlo = parseEngine(value);
+                case "playout" -> config.playoutPlies = Integer.parseInt(value);
+                case "temps" -> config.timeMillis = Long.parseLong(value);
+                case "profondeur" -> config.maxDepth = Math.min(Integer.parseInt(value), Plateau.MAX_DEPTH);
+                case "noeuds" -> config.nodeLimit = Long.parseLong(value);
+                case "table" -> config.tableMb = Integer.parseInt(value);
+                case "cache" -> config.evaluationCacheMb = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("reglage inconnu: " + pair[0]);
+            }
+        }
+        return config;
+    }
+
+    private static boolean parseSwitch(String value) {
+        switch (value) {
+            case "oui":
+                return true;
+            case "non":
+                return false;
+            default:
+                throw new IllegalArgumentException("oui ou non attendu: " + value);
+        }
+    }
+
+    private static boolean parseEngine(String value) {
+        switch (value) {
+            case "mcts":
+                return true;
+            case "alphabeta":
+                return false;
+            default:
+                throw new IllegalArgumentException("alphabeta ou mcts attendu: " + value);
+        }
+    }
+
+    public int getGroupWeight() {
+        return groupWeight;
+    }
+
+    public int getMobilityWeight() {
+        return mobilityWeight;
+    }
+
+    public int getCenterWeight() {
+        return centerWeight;
+    }
+
+    public int getConvergenceWeight() {
+        return convergenceWeight;
+    }
+
+    /**
+     * poids de la difference des nombres d'Euler (a peu pres le nombre de groupes, voir Plateau.getEulerNumber).
+     * */
+    public int getEulerWeight() {
+        return eulerWeight;
+    }
+
+    public boolean isQuiescence() {
+        return quiescence;
+    }
+
+    /**
+     * Principal Variation Search dans algoMinMax (sinon alpha-beta avec la fenetre complete a chaque coup).
+     * */
+    public boolean isPvs() {
+        return pvs;
+    }
+
+    /**
+     * demi-largeur de la fenetre d'aspiration autour du score de l'iteration precedente, 0 si desactivée.
+     * */
+    public int getAspirationWindow() {
+        return aspirationWindow;
+    }
+
+    /**
+     * le coup nul est cherché a profondeur - 1 - R, 0 si desactivé.
+     * */
+    public int getNullMoveReduction() {
+        return nullMoveReduction;
+    }
+
+    /**
+     * les coups calmes essayés apres les lateMoveThreshold premiers sont cherchés moins profond, 0 si desactivé.
+     * */
+    public int getLateMoveThreshold() {
+        return lateMoveThreshold;
+    }
+
+    /**
+     * a un pli de l'horizon, un coup calme n'est pas cherché si l'evaluation statique plus cette marge
+     * ne ramene pas le score dans la fenetre; 0 si desactivé.
+     * */
+    public int getFutilityMargin() {
+        return futilityMargin;
+    }
+
+    /**
+     * Monte Carlo Tree Search (MonteCarloSearch) au lieu de algoMinMax.
+     * */
+    public boolean isMonteCarlo() {
+        return monteCarlo;
+    }
+
+    public int getPlayoutPlies() {
+        return playoutPlies;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * noeuds au dela desquels algoMinMax s'arrete comme a la fin du temps (chaque thread compte les siens), 0 sans limite.
+     * Verifié avec le temps, tous les Plateau.TIME_CHECK_INTERVAL noeuds: la recherche peut en faire un peu plus.
+     * */
+    public long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    /**
+     * tailles en Mo de la table de transposition et du cache d'evaluation crées pour cette configuration
+     * (Client, Plateau sans table); les outils qui font beaucoup de plateaux a la fois gardent les leurs.
+     * */
+    public int getTableMb() {
+        return tableMb;
+    }
+
+    public int getEvaluationCacheMb() {
+        return evaluationCacheMb;
+    }
+
+    @Override
+    public String toString() {
+        return "groupe=" + groupWeight + ",mobilite=" + mobilityWeight + ",centre=" + centerWeight
+                + ",convergence=" + convergenceWeight + ",euler=" + eulerWeight + ",quiescence=" + (quiescence ? "oui" : "non")
+                + ",pvs=" + (pvs ? "oui" : "non") + ",aspiration=" + aspirationWindow
+                + ",nullmove=" + nullMoveReduction + ",lmr=" + lateMoveThreshold + ",futilite=" + futilityMargin
+                + ",moteur=" + (monteCarlo ? "mcts" : "alphabeta") + ",playout=" + playoutPlies
+                + ",temps=" + timeMillis + ",profondeur=" + maxDepth + ",noeuds=" + nodeLimit
+                + ",table=" + tableMb + ",cache=" + evaluationCacheMb;
+    }
+}
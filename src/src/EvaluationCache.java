@@ -0,0 +1,59 @@
+import java.util.Arrays;
+
+/**
+ * Cache des evaluations de Plateau.evaluate, indexé par la clé de Zobrist de la position
+ * (combinée avec le joueur du point de vue duquel on evalue).
+ *
+ * Une case par index, une nouvelle evaluation ecrase toujours l'ancienne. Comme la table de transposition,
+ * le cache est partagé sans verrou entre les threads de recherche: on range clé XOR données, une ecriture
+ * concurrente a moitié faite se lit comme une absence. Le cache ne compte rien lui-meme: les succes sont comptés
+ * par chaque Plateau dans ses SearchStatistics, sans contention entre les threads.
+ * */
+public class EvaluationCache {
+
+    private static final int ENTRY_BYTES = 16;
+    private static final long VALID = 1L << 32;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+
+    /**
+     * sizeMb la memoire maximale du cache en megaoctets, arrondie a la puissance de 2 inferieure.
+     * */
+    public EvaluationCache(int sizeMb) {
+        long entries = Long.highestOneBit(Math.max(1L, (long) sizeMb * 1024 * 1024 / ENTRY_BYTES));
+        int size = (int) Math.min(entries, 1 << 30);
+        keys = new long[size];
+        data = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * retourne l'entrée pour cette clé, ou 0 si l'evaluation n'est pas dans le cache.
+     * */
+    public long probe(long key) {
+        int index = (int) key & mask;
+        long entry = data[index];
+        if (entry != 0 && (keys[index] ^ entry) == key) {
+            return entry;
+        }
+        return 0;
+    }
+
+    public void store(long key, int score) {
+        int index = (int) key & mask;
+        long entry = VALID | (score & 0xFFFFFFFFL);
+        data[index] = entry;
+        keys[index] = key ^ entry;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+    }
+
+    public static int score(long entry) {
+        return (int) entry;
+    }
+}
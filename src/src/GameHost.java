@@ -0,0 +1,199 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hote de parties: un seul processus joue beaucoup de parties a la fois, chacune sur sa propre connexion au serveur.
+ * Le demarrage de la JVM et la compilation JIT ne se paient qu'une fois pour toutes les parties.
+ *
+ * Chaque partie a son propre Client (Plateau, joueurs, table de transposition, cache) et tourne sur un thread virtuel
+ * qui lit lui-meme sa connexion (ServerConnection, sans thread reseau ni Selector par partie): une partie passe
+ * presque tout son temps a attendre le serveur, et un thread virtuel qui attend ne coute presque rien.
+ * Les recherches passent toutes par un seul pool de threads de taille fixe (un par coeur par defaut, voir
+ * ParallelSearch(ExecutorService)): il n'y a jamais plus de recherches en cours que de threads dans le pool, et
+ * le temps passé dans la file d'attente est pris sur le temps de recherche, ce qui garde le temps de reponse
+ * proche du temps par coup. Pas de reflexion pendant le temps de l'adversaire: elle occuperait un thread du pool
+ * pendant tout ce temps.
+ *
+ * Le projet compile en Java 17: sur un JDK 21 ou plus les parties sont des threads virtuels, sur un JDK plus
+ * ancien des threads ordinaires (meme comportement, un thread par partie).
+ *
+ * java GameHost <hote> <port> <parties simultanées> [parties au total] [ms par coup] [threads de recherche] [configuration]
+ *      hote "local": lance un LocalServer dans le meme processus (test de charge), le port est alors ignoré.
+ *      configuration: reglages du moteur de chaque partie (EngineConfig), exple moteur=mcts.
+ *      exple: java GameHost local 0 100 400 200
+ * */
+public class GameHost {
+
+    /** tables de chaque partie: 100 parties avec les 64 Mo du client seul ne tiendraient pas en memoire */
+    private static final int GAME_TABLE_MB = 4;
+    private static final int GAME_CACHE_MB = 1;
+    private static final long REPORT_INTERVAL_MS = 10_000;
+
+    private final String host;
+    private final int port;
+    private final long tempsParCoup;
+    private final ExecutorService searchPool;
+    private final EngineConfig config;
+    private final ThreadFactory gameThreads = gameThreadFactory();
+
+    private final AtomicInteger started = new AtomicInteger();
+    private final AtomicInteger finished = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder moveNanos = new LongAdder();
+    private final AtomicLong maxMoveNanos = new AtomicLong();
+
+    public GameHost(String host, int port, long tempsParCoup, int searchThreads, EngineConfig config) {
+        this.host = host;
+        this.port = port;
+        this.tempsParCoup = tempsParCoup;
+        this.config = config;
+        this.searchPool = Executors.newFixedThreadPool(Math.max(1, searchThreads), runnable -> {
+            Thread thread = new Thread(runnable, "recherche");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = args[0];
+        int port = Integer.parseInt(args[1]);
+        int simultanees = Integer.parseInt(args[2]);
+        int total = args.length > 3 ? Integer.parseInt(args[3]) : simultanees;
+        long tempsParCoup = args.length > 4 ? Long.parseLong(args[4]) : Plateau.DEFAULT_TIME_BUDGET_MS;
+        int searchThreads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        EngineConfig config = args.length > 6 ? EngineConfig.parse(args[6]) : EngineConfig.DEFAULT;
+
+        // les Client ecrivent beaucoup: seul le rapport de l'hote est affiché
+        PrintStream rapport = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        LocalServer local = host.equals("local") ? new LocalServer(false, false) : null;
+        try {
+            GameHost gameHost = new GameHost(local != null ? "localhost" : host, local != null ? local.getPort() : port,
+                    tempsParCoup, searchThreads, config);
+            long start = System.nanoTime();
+            gameHost.run(simultanees, total, rapport);
+            rapport.println(total + " parties en " + (System.nanoTime() - start) / 1_000_000 + " ms: " + gameHost.report());
+            if (local != null) {
+                rapport.println(local.report());
+            }
+        } finally {
+            System.setOut(rapport);
+            if (local != null) {
+                local.close();
+            }
+        }
+    }
+
+    /**
+     * joue total parties, jamais plus de simultanees a la fois, et retourne quand elles sont toutes finies.
+     * */
+    public void run(int simultanees, int total, PrintStream rapport) throws InterruptedException {
+        Semaphore places = new Semaphore(simultanees);
+        long nextReport = System.currentTimeMillis() + REPORT_INTERVAL_MS;
+        try {
+            for (int i = 0; i < total; i++) {
+                while (!places.tryAcquire(REPORT_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                    rapport.println(report());
+                }
+                started.incrementAndGet();
+                gameThreads.newThread(() -> {
+                    try {
+                        playGame();
+                    } finally {
+                        places.release();
+                    }
+                }).start();
+                if (System.currentTimeMillis() > nextReport) {
+                    rapport.println(report());
+                    nextReport = System.currentTimeMillis() + REPORT_INTERVAL_MS;
+                }
+            }
+            // toutes les places rendues: toutes les parties sont finies
+            while (!places.tryAcquire(simultanees, REPORT_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                rapport.println(report());
+            }
+        } finally {
+            searchPool.shutdownNow();
+        }
+    }
+
+    /**
+     * une partie, du premier message a la fermeture de la connexion, sur le thread (virtuel) de la partie.
+     * */
+    private void playGame() {
+        ParallelSearch recherche = new ParallelSearch(searchPool);
+        Client client = new Client(tempsParCoup, recherche, null, false, new BufferedReader(new StringReader("")),
+                new TranspositionTable(GAME_TABLE_MB), new EvaluationCache(GAME_CACHE_MB));
+        client.setConfig(config);
+        active.incrementAndGet();
+        try (ServerConnection connexion = ServerConnection.connect(host, port)) {
+            while (true) {
+                ServerMessage message = connexion.take();
+                if (message.isEnd()) {
+                    break;
+                }
+                long debut = System.nanoTime();
+                String reponse = client.handle(message);
+                if (reponse != null) {
+                    recordMove(System.nanoTime() - debut);
+                    connexion.send(reponse);
+                }
+            }
+            finished.incrementAndGet();
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            System.err.println("partie perdue: " + e);
+        } catch (InterruptedException e) {
+            failed.incrementAndGet();
+            Thread.currentThread().interrupt();
+        } finally {
+            active.decrementAndGet();
+            client.shutdown();
+        }
+    }
+
+    private void recordMove(long nanos) {
+        moves.increment();
+        moveNanos.add(nanos);
+        maxMoveNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public String report() {
+        long count = moves.sum();
+        return started + " parties commencées, " + active + " en cours, " + finished + " finies, " + failed + " perdues; "
+                + count + " coups, temps de reponse moyen " + (count == 0 ? 0 : moveNanos.sum() / count / 1_000_000)
+                + " ms, max " + maxMoveNanos.get() / 1_000_000 + " ms";
+    }
+
+    /**
+     * threads virtuels si le JDK en a (21 et plus), sinon threads ordinaires. Par reflexion: le projet compile en Java 17.
+     * */
+    private static ThreadFactory gameThreadFactory() {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "partie-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger count = new AtomicInteger();
+            return runnable -> {
+                Thread thread = new Thread(runnable, "partie-" + count.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+}
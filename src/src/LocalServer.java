@@ -0,0 +1,308 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serveur de jeu local qui remplace le serveur du cours pour tester le client sans lui.
+ *
+ * Il parle le meme protocole (commandes 1 a 5, plateau en chiffres separés par des espaces, coups "D6 - D8")
+ * et joue lui-meme des coups legaux au hasard contre chaque client connecté, une partie par connexion;
+ * les clients connectés en position paire jouent blanc, les autres noir. Il verifie chaque coup recu
+ * et repond 4 a un coup illegal.
+ *
+ * Deux options servent a eprouver le client:
+ *  - fragment: chaque message est envoyé en morceaux de 1 a 3 octets, pour verifier le decoupage des messages;
+ *  - rejectFirstMove: le premier coup de chaque partie est refusé (commande 4) meme s'il est legal.
+ *
+ * java LocalServer [parties] [clients simultanés] [ms par coup]
+ *      test de charge: lance le serveur et des Client dans le meme processus, puis affiche les resultats
+ *      et le temps de reponse mesuré par le serveur.
+ * */
+public class LocalServer implements Closeable {
+
+    /** au dela la partie est declarée nulle */
+    private static final int MAX_PLIES = 300;
+    private static final int MAX_INVALID_MOVES = 3;
+    private static final int READ_TIMEOUT_MS = 60_000;
+
+    private final ServerSocket server;
+    private final boolean fragment;
+    private final boolean rejectFirstMove;
+    private final ExecutorService games = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "partie");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger clientWins = new AtomicInteger();
+    private final AtomicInteger serverWins = new AtomicInteger();
+    private final AtomicInteger draws = new AtomicInteger();
+    private final AtomicInteger invalidMoves = new AtomicInteger();
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder responseNanos = new LongAdder();
+    private final AtomicLong maxResponseNanos = new AtomicLong();
+
+    /**
+     * ecoute sur un port libre de localhost (voir getPort).
+     * */
+    public LocalServer(boolean fragment, boolean rejectFirstMove) throws IOException {
+        this.server = new ServerSocket(0, 256, InetAddress.getLoopbackAddress());
+        this.fragment = fragment;
+        this.rejectFirstMove = rejectFirstMove;
+        Thread accept = new Thread(this::acceptLoop, "serveur");
+        accept.setDaemon(true);
+        accept.start();
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        games.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        try {
+            while (true) {
+                Socket socket = server.accept();
+                int index = connections.getAndIncrement();
+                games.submit(() -> playGame(socket, index));
+            }
+        } catch (IOException e) {
+            // serveur fermé
+        }
+    }
+
+    private void playGame(Socket socket, int index) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(READ_TIMEOUT_MS);
+            InputStream input = socket.getInputStream();
+            OutputStream output = socket.getOutputStream();
+            Random random = new Random(index);
+            int[] mouvements = new int[Plateau.MAX_MOVEMENTS];
+
+            boolean clientIsWhite = index % 2 == 0;
+            Plateau plateau = new Plateau(Plateau.START_POSITION);
+            plateau.setPlayers('1');
+            Player client = clientIsWhite ? plateau.playerMax : plateau.playerMin;
+            Player serveur = clientIsWhite ? plateau.playerMin : plateau.playerMax;
+
+            send(output, (clientIsWhite ? ServerMessage.NEW_GAME_WHITE : ServerMessage.NEW_GAME_BLACK) + board(Plateau.START_POSITION), random);
+            if (!clientIsWhite) {
+                int mouvement = randomMove(plateau, serveur, random, mouvements);
+                plateau.play(mouvement, serveur);
+                send(output, ServerMessage.PLAY + move(mouvement), random);
+            }
+
+            boolean rejected = false;
+            int invalid = 0;
+            for (int ply = 0; ply < MAX_PLIES; ply += 2) {
+                long asked = System.nanoTime();
+                int mouvement = readMove(input, plateau, client);
+                recordResponse(System.nanoTime() - asked);
+
+                if (mouvement == Move.NONE || (rejectFirstMove && !rejected)) {
+                    rejected = true;
+                    invalidMoves.incrementAndGet();
+                    if (++invalid > MAX_INVALID_MOVES) {
+                        serverWins.incrementAndGet();
+                        send(output, ServerMessage.GAME_OVER + " A1 - A1", random);
+                        return;
+                    }
+                    send(output, String.valueOf(ServerMessage.INVALID_MOVE), random);
+                    ply -= 2;
+                    continue;
+                }
+
+                plateau.play(mouvement, client);
+                if (isOver(plateau, client, client)) {
+                    send(output, ServerMessage.GAME_OVER + move(mouvement), random);
+                    return;
+                }
+
+                int reponse = randomMove(plateau, serveur, random, mouvements);
+                if (reponse == Move.NONE) {
+                    draws.incrementAndGet();
+                    send(output, ServerMessage.GAME_OVER + move(mouvement), random);
+                    return;
+                }
+                plateau.play(reponse, serveur);
+                if (isOver(plateau, serveur, client)) {
+                    send(output, ServerMessage.GAME_OVER + move(reponse), random);
+                    return;
+                }
+                send(output, ServerMessage.PLAY + move(reponse), random);
+            }
+            draws.incrementAndGet();
+            send(output, ServerMessage.GAME_OVER + " A1 - A1", random);
+        } catch (SocketTimeoutException e) {
+            System.out.println("partie " + index + ": le client ne repond plus");
+        } catch (IOException e) {
+            System.out.println("partie " + index + ": " + e);
+        }
+    }
+
+    /**
+     * vrai si la partie est finie apres un coup de joueur (et compte le resultat), voir Plateau.winnerAfter.
+     * */
+    private boolean isOver(Plateau plateau, Player joueur, Player client) {
+        char winner = plateau.winnerAfter(joueur.getCurrent());
+        if (winner == 0) {
+            return false;
+        }
+        (winner == client.getCurrent() ? clientWins : serverWins).incrementAndGet();
+        return true;
+    }
+
+    private void recordResponse(long nanos) {
+        responses.increment();
+        responseNanos.add(nanos);
+        maxResponseNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * lit le prochain coup du client (4 lettres/chiffres significatifs) et retourne le coup encodé s'il est legal,
+     * Move.NONE sinon.
+     * */
+    private static int readMove(InputStream input, Plateau plateau, Player client) throws IOException {
+        StringBuilder significant = new StringBuilder(ProtocolReader.MOVE_LENGTH);
+        while (significant.length() < ProtocolReader.MOVE_LENGTH) {
+            int c = input.read();
+            if (c < 0) {
+                throw new IOException("le client a fermé la connexion");
+            }
+            char upper = Character.toUpperCase((char) c);
+            if ((upper >= 'A' && upper <= 'H') || (upper >= '1' && upper <= '8')) {
+                significant.append(upper);
+            }
+        }
+
+        int from = Move.parseSquare(significant.substring(0, 2));
+        int to = Move.parseSquare(significant.substring(2));
+        if (from < 0 || from >= 64 || to < 0 || to >= 64) {
+            return Move.NONE;
+        }
+        for (int legal : plateau.generateMovements(from, client.getCurrent())) {
+            if (Move.to(legal) == to) {
+                return legal;
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * un coup legal de joueur au hasard, Move.NONE s'il n'en a pas; mouvements est le tampon de la partie.
+     * */
+    private static int randomMove(Plateau plateau, Player joueur, Random random, int[] mouvements) {
+        int count = plateau.generateMovements(joueur.getCurrent(), mouvements, 0);
+        return count == 0 ? Move.NONE : mouvements[random.nextInt(count)];
+    }
+
+    /**
+     * plateau au format du serveur du cours: les chiffres separés par des espaces.
+     * */
+    private static String board(String position) {
+        StringBuilder board = new StringBuilder();
+        for (char c : position.toCharArray()) {
+            board.append(' ').append(c);
+        }
+        return board.toString();
+    }
+
+    private static String move(int mouvement) {
+        return " " + Move.squareName(Move.from(mouvement)) + " - " + Move.squareName(Move.to(mouvement));
+    }
+
+    private void send(OutputStream output, String message, Random random) throws IOException {
+        byte[] bytes = message.getBytes(StandardCharsets.US_ASCII);
+        if (!fragment) {
+            output.write(bytes);
+            output.flush();
+            return;
+        }
+        for (int offset = 0; offset < bytes.length; ) {
+            int length = Math.min(bytes.length - offset, 1 + random.nextInt(3));
+            output.write(bytes, offset, length);
+            output.flush();
+            offset += length;
+            try {
+                Thread.sleep(0, 200_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * resultats du point de vue des clients et temps de reponse mesuré par le serveur, sur deux lignes.
+     * */
+    public String report() {
+        long count = responses.sum();
+        return "client " + clientWins + " gagnées, " + serverWins + " perdues, " + draws + " nulles\n"
+                + count + " coups recus, " + invalidMoves + " refusés (commande 4); reponse moyenne "
+                + (count == 0 ? 0 : responseNanos.sum() / count / 1_000_000) + " ms, max "
+                + maxResponseNanos.get() / 1_000_000 + " ms";
+    }
+
+    public static void main(String[] args) throws Exception {
+        int parties = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int simultanes = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        long tempsParCoup = args.length > 2 ? Long.parseLong(args[2]) : 100;
+
+        // les Client ecrivent beaucoup: seul le rapport est affiché
+        PrintStream rapport = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        long start = System.nanoTime();
+        ExecutorService clients = Executors.newFixedThreadPool(simultanes);
+        try (LocalServer server = new LocalServer(true, true)) {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < parties; i++) {
+                results.add(clients.submit(() -> {
+                    Client client = new Client(tempsParCoup, new ParallelSearch(1), null, true, new BufferedReader(new StringReader("")),
+                            new TranspositionTable(16), new EvaluationCache(4));
+                    try (ServerConnection connexion = ServerConnection.connect("localhost", server.getPort())) {
+                        client.run(connexion);
+                    } finally {
+                        client.shutdown();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            clients.shutdown();
+            clients.awaitTermination(1, TimeUnit.MINUTES);
+
+            rapport.println(parties + " parties en " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            rapport.println(server.report());
+        } finally {
+            System.setOut(rapport);
+        }
+    }
+}
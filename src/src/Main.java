@@ -1,3 +1,6 @@
+import java.util.ArrayList;
+import java.util.List;
+
 
 public class Main {
     public static void main(String[] args) {
@@ -36,6 +39,10 @@ public class Main {
 
         //plateau.miniMax('1', plateau);
         //System.out.println(plateau.moveToSend);
-        System.out.println(plateau.generateMovements("D8", 'X'));
+        List<String> movements = new ArrayList<>();
+        for (int movement : plateau.generateMovements(Move.parseSquare("D8"), 'X')) {
+            movements.add(Move.toString(movement));
+        }
+        System.out.println(movements);
     }
 }
@@ -0,0 +1,386 @@
+/**
+ * Monte Carlo Tree Search (UCT), moteur de rechange a algoMinMax (EngineConfig: moteur=mcts).
+ *
+ * Chaque iteration descend l'arbre en choisissant a chaque noeud l'enfant de meilleur score UCT
+ * (taux de victoire + UCT_EXPLORATION * sqrt(ln N / n)), ajoute les enfants de la feuille, joue une partie
+ * simulée a partir de la feuille puis remonte le resultat jusqu'a la racine. La partie simulée s'arrete a la
+ * premiere connexion (Connectivity, comme terminalScore) ou apres config.getPlayoutPlies() demi-coups:
+ * c'est alors l'ecart entre les evaluations des deux camps qui donne une probabilité de victoire. Ses coups sont tirés au hasard, le meilleur de PLAYOUT_SAMPLES
+ * tirages selon un critere tres simple (prise, rapprochement de nos pions); les coups sont generés dans un
+ * tampon du thread et joués/annulés sur sa copie du plateau, une partie simulée n'alloue rien.
+ *
+ * Plusieurs threads partagent le meme arbre, chacun sur sa copie du plateau. L'arbre est protégé par un seul
+ * verrou (descente, expansion, remontée): c'est peu de chose a coté de la partie simulée, faite sans verrou.
+ * Pendant qu'un thread simule, les noeuds de son chemin portent une perte virtuelle (une visite sans victoire)
+ * pour que les autres threads essaient d'autres branches.
+ *
+ * La recherche peut s'arreter a tout moment (heure limite ou stopSearch sur le plateau de la racine): le coup
+ * joué est l'enfant de la racine le plus visité, ou un coup qui gagne tout de suite.
+ * Les scores sont du point de vue de playerMax, qui a le trait a la racine.
+ * */
+public class MonteCarloSearch {
+
+    private static final double UCT_EXPLORATION = 0.8;
+    /** visites d'une feuille avant d'ajouter ses enfants: les noeuds rarement visités ne coutent pas d'allocation */
+    private static final int EXPANSION_VISITS = 2;
+    private static final int PLAYOUT_SAMPLES = 2;
+    /** ecart d'evaluation qui donne environ 73% de victoire a une partie simulée coupée avant la fin */
+    private static final double PLAYOUT_SCORE_SCALE = 200;
+    private static final int TIME_CHECK_INTERVAL = 16;
+    /** score retourné pour un taux de victoire de 100% (0% donne l'opposé), bien en dessous de Plateau.WIN_THRESHOLD */
+    private static final int SCORE_SCALE = 1000;
+
+    private final Plateau root;
+    private final Node tree = new Node(Move.NONE);
+    private long nodes;
+    private long playouts;
+    private int seeds;
+
+    /**
+     * root: position a chercher, playerMax au trait. Chaque thread de run cherche sur sa propre copie.
+     * */
+    public MonteCarloSearch(Plateau root) {
+        this.root = root;
+    }
+
+    /**
+     * recherche a un seul thread pendant timeBudgetMillis; le coup est rangé dans plateau.moveToSend.
+     * */
+    public static int search(Plateau plateau, long timeBudgetMillis) {
+        MonteCarloSearch search = new MonteCarloSearch(plateau);
+        search.run(System.nanoTime() + timeBudgetMillis * 1_000_000);
+        return search.finish();
+    }
+
+    /**
+     * iterations jusqu'a deadline (System.nanoTime) ou root.stopSearch(). Plusieurs threads peuvent appeler run en meme temps.
+     * */
+    public void run(long deadline) {
+        Plateau board = root.copyForHelper();
+        Worker worker = new Worker(board, nextSeed());
+        for (long iteration = 0; ; iteration++) {
+            if (iteration % TIME_CHECK_INTERVAL == 0 && (root.isStopRequested() || System.nanoTime() > deadline)) {
+                break;
+            }
+            worker.iterate();
+        }
+        synchronized (tree) {
+            nodes += worker.nodes;
+            playouts += worker.playouts;
+        }
+    }
+
+    /**
+     * une fois tous les run terminés: range le coup, la profondeur de la variante principale et les compteurs
+     * dans root, et retourne le score du coup.
+     * */
+    public int finish() {
+        synchronized (tree) {
+            SearchStatistics statistics = root.getStatistics();
+            statistics.reset();
+            statistics.nodes = nodes;
+            statistics.playouts = playouts;
+
+            Node best = bestChild(tree);
+            if (best == null) {
+                // racine jamais developpée (temps nul) ou sans coup legal
+                int[] mouvements = new int[Plateau.MAX_MOVEMENTS];
+                int count = root.generateMovements(root.playerMax.getCurrent(), mouvements, 0);
+                root.setSearchResult(count == 0 ? Move.NONE : mouvements[0], 0);
+                return 0;
+            }
+            int depth = 0;
+            for (Node node = best; node != null; node = bestChild(node)) {
+                depth++;
+            }
+            root.setSearchResult(best.move, depth);
+            storePrincipalVariation(best);
+            if (best.winner != 0) {
+                return best.winner > 0 ? Plateau.WIN_SCORE - 1 : -(Plateau.WIN_SCORE - 1);
+            }
+            return (int) Math.round((2 * best.wins / Math.max(1, best.visits) - 1) * SCORE_SCALE);
+        }
+    }
+
+    /**
+     * range la variante principale (les enfants les plus visités) dans la table de transposition de root, comme
+     * le fait algoMinMax: Ponder.predict y lit la reponse attendue de l'adversaire. Les entrées sont de profondeur 0,
+     * elles ne donnent que le coup a essayer et ne coupent jamais une recherche.
+     * */
+    private void storePrincipalVariation(Node best) {
+        TranspositionTable table = root.getTranspositionTable();
+        Plateau board = new Plateau(root);
+        Player joueur = board.playerMax;
+        for (Node node = best; node != null; node = bestChild(node)) {
+            table.store(board.getZobristKey() ^ Zobrist.sideToMove(joueur.getCurrent()), 0, TranspositionTable.EXACT, 0, node.move);
+            board.play(node.move, joueur);
+            joueur = joueur == board.playerMax ? board.playerMin : board.playerMax;
+        }
+    }
+
+    private synchronized int nextSeed() {
+        return seeds++;
+    }
+
+    /**
+     * l'enfant le plus visité, un enfant gagnant s'il y en a un; null si le noeud n'a pas d'enfant visité.
+     * */
+    private static Node bestChild(Node node) {
+        if (node.children == null) {
+            return null;
+        }
+        Node best = null;
+        for (Node child : node.children) {
+            if (child.winner > 0) {
+                return child;
+            }
+            if (child.visits > 0 && (best == null || child.visits > best.visits)) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * winner: 0 tant qu'on ne sait pas, 1 si le coup du noeud a gagné la partie pour celui qui l'a joué, -1 s'il l'a perdue.
+     * wins: victoires du joueur qui a joué move (une nulle compte 1/2). Tous les champs sont protégés par le verrou de l'arbre.
+     * */
+    private static final class Node {
+        final int move;
+        Node[] children;
+        int visits;
+        int virtualLoss;
+        double wins;
+        int winner;
+        boolean checked;
+
+        Node(int move) {
+            this.move = move;
+        }
+    }
+
+    /**
+     * etat d'un thread de recherche: sa copie du plateau, ses tampons et son generateur aleatoire.
+     * */
+    private final class Worker {
+
+        private final Plateau board;
+        private final int[] mouvements = new int[Plateau.MAX_MOVEMENTS];
+        private final Node[] path = new Node[Plateau.MAX_DEPTH + 1];
+        private final int[] playoutMoves;
+        private long random;
+        private long nodes;
+        private long playouts;
+
+        Worker(Plateau board, int seed) {
+            this.board = board;
+            this.playoutMoves = new int[Math.max(0, board.getConfig().getPlayoutPlies())];
+            this.random = 0x9E3779B97F4A7C15L * (seed + 1);
+        }
+
+        void iterate() {
+            int depth = descend();
+            Node leaf = path[depth];
+            double result;
+            if (leaf.winner != 0) {
+                result = moverIsMax(depth) == leaf.winner > 0 ? 1 : 0;
+            } else {
+                result = playout(depth);
+            }
+            for (int d = depth; d >= 1; d--) {
+                board.undoPlay(path[d].move, moverIsMax(d) ? board.playerMax : board.playerMin);
+            }
+            backPropagate(depth, result);
+        }
+
+        /**
+         * selection et expansion sous le verrou; retourne la profondeur de la feuille, path[0..profondeur] le chemin.
+         * Les coups du chemin sont joués sur board.
+         * */
+        private int descend() {
+            synchronized (tree) {
+                Node node = tree;
+                int depth = 0;
+                path[0] = node;
+                node.virtualLoss++;
+                while (node.winner == 0 && depth < Plateau.MAX_DEPTH) {
+                    Player joueur = moverIsMax(depth + 1) ? board.playerMax : board.playerMin;
+                    if (node.children == null) {
+                        if (node != tree && node.visits < EXPANSION_VISITS) {
+                            break;
+                        }
+                        expand(node, joueur);
+                    }
+                    if (node.children.length == 0) {
+                        break;
+                    }
+                    Node child = select(node);
+                    board.play(child.move, joueur);
+                    nodes++;
+                    if (!child.checked) {
+                        child.checked = true;
+                        child.winner = winner(joueur);
+                    }
+                    node = child;
+                    path[++depth] = node;
+                    node.virtualLoss++;
+                }
+                return depth;
+            }
+        }
+
+        private void expand(Node node, Player joueur) {
+            int count = board.generateMovements(joueur.getCurrent(), mouvements, 0);
+            Node[] children = new Node[count];
+            for (int i = 0; i < count; i++) {
+                children[i] = new Node(mouvements[i]);
+            }
+            node.children = children;
+        }
+
+        /**
+         * UCT, pertes virtuelles comprises; un coup qui gagne est pris tout de suite, un coup qui perd seulement s'il n'y a rien d'autre.
+         * */
+        private Node select(Node node) {
+            double logVisits = Math.log(Math.max(1, node.visits + node.virtualLoss));
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : node.children) {
+                if (child.winner > 0) {
+                    return child;
+                }
+                int visits = child.visits + child.virtualLoss;
+                if (visits == 0 && child.winner == 0) {
+                    return child;
+                }
+                double value = child.winner < 0 ? -1
+                        : child.wins / visits + UCT_EXPLORATION * Math.sqrt(logVisits / visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        private void backPropagate(int depth, double result) {
+            synchronized (tree) {
+                for (int d = depth; d >= 0; d--) {
+                    Node node = path[d];
+                    node.visits++;
+                    node.virtualLoss--;
+                    node.wins += moverIsMax(d) ? result : 1 - result;
+                }
+                // un enfant perdant pour tous les coups de l'adversaire: le coup du parent gagne (et inversement)
+                for (int d = depth; d >= 1; d--) {
+                    Node node = path[d];
+                    if (node.winner != 0 || node.children == null || node.children.length == 0) {
+                        continue;
+                    }
+                    boolean allLost = true;
+                    for (Node child : node.children) {
+                        if (child.winner > 0) {
+                            node.winner = -1;
+                            allLost = false;
+                            break;
+                        }
+                        allLost &= child.winner < 0;
+                    }
+                    if (allLost) {
+                        node.winner = 1;
+                    }
+                }
+            }
+        }
+
+        /**
+         * partie simulée depuis la feuille de profondeur depth; retourne 1 si playerMax gagne, 0 s'il perd, 1/2 sinon.
+         * board est remis dans l'etat de la feuille avant de retourner.
+         * */
+        private double playout(int depth) {
+            playouts++;
+            Player joueur = moverIsMax(depth + 1) ? board.playerMax : board.playerMin;
+            int plies = 0;
+            double result = -1;
+            while (plies < playoutMoves.length) {
+                int count = board.generateMovements(joueur.getCurrent(), mouvements, 0);
+                if (count == 0) {
+                    result = 0.5;
+                    break;
+                }
+                int mouvement = choose(joueur.getCurrent(), count);
+                board.play(mouvement, joueur);
+                playoutMoves[plies++] = mouvement;
+                nodes++;
+                int fin = winner(joueur);
+                if (fin != 0) {
+                    result = (joueur == board.playerMax) == fin > 0 ? 1 : 0;
+                    break;
+                }
+                joueur = joueur == board.playerMax ? board.playerMin : board.playerMax;
+            }
+            if (result < 0) {
+                // evaluate n'est pas a somme nulle (mobilité, centre... comptent pour chaque camp): on compare les deux camps
+                // et l'ecart devient une probabilité de victoire: un simple signe jetterait l'ampleur de l'avance
+                int score = board.evaluate(board.playerMax) - board.evaluate(board.playerMin);
+                result = 1 / (1 + Math.exp(-score / PLAYOUT_SCORE_SCALE));
+            }
+            for (int i = plies - 1; i >= 0; i--) {
+                // le dernier coup est celui de depth + plies
+                board.undoPlay(playoutMoves[i], moverIsMax(depth + 1 + i) ? board.playerMax : board.playerMin);
+            }
+            return result;
+        }
+
+        /**
+         * le meilleur de PLAYOUT_SAMPLES coups tirés au hasard: une prise compte 1, et chaque pion a nous autour
+         * de la case d'arrivée (moins ceux autour de la case de depart) compte 1.
+         * */
+        private int choose(char player, int count) {
+            long own = board.getPieces(player);
+            int best = Move.NONE;
+            int bestScore = Integer.MIN_VALUE;
+            for (int sample = 0; sample < PLAYOUT_SAMPLES; sample++) {
+                int mouvement = mouvements[nextInt(count)];
+                long others = own & ~(1L << Move.from(mouvement));
+                int score = Long.bitCount(Connectivity.dilate(1L << Move.to(mouvement)) & others)
+                        - Long.bitCount(Connectivity.dilate(1L << Move.from(mouvement)) & others)
+                        + (Move.isCapture(mouvement) ? 1 : 0);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = mouvement;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * 1 si le coup que joueur vient de jouer lui fait gagner la partie, -1 s'il la fait gagner a l'adversaire, 0 sinon
+         * (voir Plateau.winnerAfter).
+         * */
+        private int winner(Player joueur) {
+            char gagnant = board.winnerAfter(joueur.getCurrent());
+            if (gagnant == 0) {
+                return 0;
+            }
+            return gagnant == joueur.getCurrent() ? 1 : -1;
+        }
+
+        /**
+         * xorshift64: pas d'allocation ni de synchronisation, et bien assez aleatoire pour des parties simulées.
+         * */
+        private int nextInt(int bound) {
+            random ^= random << 13;
+            random ^= random >>> 7;
+            random ^= random << 17;
+            return (int) ((random >>> 1) % bound);
+        }
+    }
+
+    /**
+     * le coup du noeud de profondeur depth (1 pour les enfants de la racine) est joué par playerMax si depth est impair.
+     * */
+    private static boolean moverIsMax(int depth) {
+        return (depth & 1) == 1;
+    }
+}
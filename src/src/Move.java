@@ -0,0 +1,57 @@
+/**
+ * Un coup est encodé dans un seul int pour eviter de manipuler des strings pendant la recherche:
+ *  - bits 0 a 5  : case de depart (index du bit dans les bitboards de Plateau, A1 = 0 ... H8 = 63)
+ *  - bits 6 a 11 : case d'arrivée
+ *  - bit 12      : 1 si le coup prend un pion adverse
+ *
+ * Les strings "A5-C5" ne sont produites qu'a la frontiere du protocole (Client).
+ * */
+public final class Move {
+
+    /** aucun coup: A1-A1 n'est jamais un coup legal. */
+    public static final int NONE = 0;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int CAPTURE_FLAG = 1 << 12;
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to, boolean capture) {
+        return from | (to << TO_SHIFT) | (capture ? CAPTURE_FLAG : 0);
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE_FLAG) != 0;
+    }
+
+    /**
+     * nom d'une case, exple: 0 -> "A1", 43 -> "D6".
+     * */
+    public static String squareName(int square) {
+        return String.valueOf((char) ('A' + (square & 7))) + ((square >>> 3) + 1);
+    }
+
+    /**
+     * index du bit d'une position de la forme "D6".
+     * */
+    public static int parseSquare(String position) {
+        return (position.charAt(1) - '1') * 8 + (position.charAt(0) - 'A');
+    }
+
+    /**
+     * format attendu par le serveur, exple: "A5-C5".
+     * */
+    public static String toString(int move) {
+        return squareName(from(move)) + "-" + squareName(to(move));
+    }
+}
@@ -0,0 +1,113 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Livre d'ouverture: fichier binaire produit par OpeningBookGenerator et lu sans deserialisation.
+ *
+ * Le fichier est projeté en memoire (FileChannel.map) a l'ouverture et on cherche directement dedans
+ * par dichotomie: une recherche coute une vingtaine de lectures, quelques microsecondes au plus.
+ *
+ * Format (big-endian):
+ *  - entete: MAGIC (int), VERSION (int), empreinte des clés de Zobrist (long), nombre d'entrées (int)
+ *  - entrées de RECORD_BYTES octets triées par clé, une seule par position:
+ *    clé de la position (long, Plateau.getZobristKey() ^ Zobrist.sideToMove(joueur qui a le trait)),
+ *    coup (int, voir Move), score (int, du point de vue du joueur qui a le trait)
+ * */
+public class OpeningBook {
+
+    static final int MAGIC = 0x4C4F4142;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 20;
+    static final int RECORD_BYTES = 16;
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+
+    private OpeningBook(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("ce fichier n'est pas un livre d'ouverture");
+        }
+        if (buffer.getLong(8) != fingerprint()) {
+            throw new IOException("livre produit avec d'autres clés de Zobrist, il faut le regenerer");
+        }
+        this.count = buffer.getInt(16);
+        if ((long) HEADER_BYTES + (long) count * RECORD_BYTES > buffer.capacity()) {
+            throw new IOException("livre d'ouverture tronqué");
+        }
+    }
+
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * empreinte des tables de Zobrist: si elles changent, les clés du livre ne veulent plus rien dire.
+     * */
+    static long fingerprint() {
+        return Zobrist.piece('X', 0) ^ Zobrist.piece('O', 63) ^ Zobrist.sideToMove('X');
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * coup du livre pour playerMax dans la position actuelle, ou Move.NONE si la position n'est pas dans le livre.
+     * Le coup est verifié contre les coups legaux: une collision de clé ne peut pas faire jouer un coup illegal.
+     * */
+    public int lookup(Plateau plateau) {
+        long key = plateau.getZobristKey() ^ Zobrist.sideToMove(plateau.playerMax.getCurrent());
+        int index = indexOf(key);
+        if (index < 0) {
+            return Move.NONE;
+        }
+
+        int mouvement = buffer.getInt(HEADER_BYTES + index * RECORD_BYTES + 8);
+        for (int legal : plateau.generateMovements(Move.from(mouvement), plateau.playerMax.getCurrent())) {
+            if (legal == mouvement) {
+                return mouvement;
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * position de l'entrée de cette clé, -1 si absente.
+     * */
+    private int indexOf(long key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleKey = buffer.getLong(HEADER_BYTES + middle * RECORD_BYTES);
+            if (middleKey < key) {
+                low = middle + 1;
+            } else if (middleKey > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * ecrit l'entete et les entrées, qui doivent deja etre triées par clé, sans doublon (utilisé par OpeningBookGenerator).
+     * */
+    static ByteBuffer encode(long[] keys, int[] moves, int[] scores) {
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + keys.length * RECORD_BYTES);
+        out.putInt(MAGIC).putInt(VERSION).putLong(fingerprint()).putInt(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            out.putLong(keys[i]).putInt(moves[i]).putInt(scores[i]);
+        }
+        out.flip();
+        return out;
+    }
+}
@@ -0,0 +1,126 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Genere hors ligne le livre d'ouverture lu par OpeningBook.
+ *
+ * Pour chaque couleur on parcourt l'arbre des premiers coups: quand c'est a cette couleur de jouer on cherche
+ * longtemps (bien plus que le temps d'un coup en partie) et on ne suit que le coup trouvé, quand c'est a
+ * l'adversaire on suit toutes ses reponses. Le livre couvre donc toute partie ou le moteur joue les coups
+ * du livre, quoi que fasse l'adversaire, pendant les plies premiers demi-coups.
+ *
+ * java OpeningBookGenerator <fichier> [plies] [ms par position] [position]
+ *      plies: nombre de demi-coups couverts depuis la position (4 par defaut)
+ *      ms par position: BOOK_TIME_FACTOR fois le temps d'un coup en partie par defaut
+ *      position: les 64 chiffres du serveur, blanc (O) a le trait (position de depart par defaut)
+ * */
+public class OpeningBookGenerator {
+
+    /** temps de recherche par position du livre, en multiples de Plateau.DEFAULT_TIME_BUDGET_MS */
+    private static final int BOOK_TIME_FACTOR = 10;
+
+    private final long searchMillis;
+    private final TranspositionTable[] tables = new TranspositionTable[2];
+    private final EvaluationCache cache = new EvaluationCache(16);
+    /** clé de position -> {coup, score}, une seule recherche par position meme atteinte par transposition */
+    private final Map<Long, int[]> entries = new HashMap<>();
+
+    private OpeningBookGenerator(long searchMillis) {
+        this.searchMillis = searchMillis;
+        // les scores de la table sont du point de vue de playerMax: une table par couleur
+        tables[0] = new TranspositionTable(64);
+        tables[1] = new TranspositionTable(64);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args[0]);
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        long searchMillis = args.length > 2 ? Long.parseLong(args[2]) : BOOK_TIME_FACTOR * Plateau.DEFAULT_TIME_BUDGET_MS;
+        String position = args.length > 3 ? args[3] : Plateau.START_POSITION;
+
+        OpeningBookGenerator generator = new OpeningBookGenerator(searchMillis);
+        for (char bookSide : new char[] {'O', 'X'}) {
+            Plateau plateau = new Plateau(position);
+            plateau.setPlayers('1');
+            generator.expand(plateau, plateau.playerMax, plateau.playerMin, bookSide, plies);
+        }
+        generator.write(file);
+        System.out.println(generator.entries.size() + " positions ecrites dans " + file);
+    }
+
+    /**
+     * joueur a le trait sur plateau; bookSide est la couleur dont on range les coups.
+     * */
+    private void expand(Plateau plateau, Player joueur, Player adversaire, char bookSide, int plies) {
+        if (plies == 0 || plateau.isConnected('O') || plateau.isConnected('X')) {
+            return;
+        }
+
+        if (joueur.getCurrent() == bookSide) {
+            int mouvement = bookMove(plateau, joueur);
+            if (mouvement == Move.NONE) {
+                return;
+            }
+            plateau.play(mouvement, joueur);
+            expand(plateau, adversaire, joueur, bookSide, plies - 1);
+            plateau.undoPlay(mouvement, joueur);
+            return;
+        }
+
+        List<Integer> mouvements = new ArrayList<>();
+        for (int square = 0; square < 64; square++) {
+            mouvements.addAll(plateau.generateMovements(square, joueur.getCurrent()));
+        }
+        for (int mouvement : mouvements) {
+            plateau.play(mouvement, joueur);
+            expand(plateau, adversaire, joueur, bookSide, plies - 1);
+            plateau.undoPlay(mouvement, joueur);
+        }
+    }
+
+    /**
+     * cherche (ou retrouve) le coup du livre pour joueur dans cette position.
+     * */
+    private int bookMove(Plateau plateau, Player joueur) {
+        long key = plateau.getZobristKey() ^ Zobrist.sideToMove(joueur.getCurrent());
+        int[] entry = entries.get(key);
+        if (entry == null) {
+            Plateau search = new Plateau(plateau);
+            search.setPlayers(joueur.getCurrent() == 'O' ? '1' : '2');
+            search.setTranspositionTable(tables[joueur.getCurrent() == 'O' ? 0 : 1]);
+            search.setEvaluationCache(cache);
+            int score = search.iterativeDeepening(searchMillis, Plateau.MAX_DEPTH);
+            entry = new int[] {search.moveToSend, score};
+            entries.put(key, entry);
+            System.out.println(entries.size() + ": " + joueur.getCurrent() + " " + Move.toString(search.moveToSend)
+                    + " (profondeur " + search.getCompletedDepth() + ", score " + score + ")");
+        }
+        return entry[0];
+    }
+
+    private void write(Path file) throws IOException {
+        List<Long> sortedKeys = new ArrayList<>(entries.keySet());
+        sortedKeys.sort(null);
+
+        long[] keys = new long[sortedKeys.size()];
+        int[] moves = new int[keys.length];
+        int[] scores = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            int[] entry = entries.get(sortedKeys.get(i));
+            keys[i] = sortedKeys.get(i);
+            moves[i] = entry[0];
+            scores[i] = entry[1];
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(OpeningBook.encode(keys, moves, scores));
+        }
+    }
+}
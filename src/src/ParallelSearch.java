@@ -0,0 +1,179 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Recherche parallele "Lazy SMP".
+ *
+ * Le thread appelant cherche sur le plateau du jeu, chaque thread auxiliaire sur sa propre copie (plateau.copyForHelper())
+ * avec sa propre pile de recherche. Les threads ne se parlent qu'a travers la table de transposition partagée:
+ * ce qu'un thread a deja cherché coupe ou ordonne la recherche des autres. Les threads impairs commencent
+ * une profondeur plus loin pour ne pas tous faire le meme travail au meme moment.
+ *
+ * Le coup retenu est celui du thread qui a terminé l'iteration la plus profonde.
+ *
+ * Avec un pool partagé (voir GameHost) la recherche n'a qu'un thread, pris dans le pool commun a toutes les parties,
+ * et le thread appelant attend qu'elle soit finie.
+ * */
+public class ParallelSearch {
+
+    /**
+     * une recherche qui commence apres son heure limite (restée trop longtemps dans la file du pool partagé)
+     * a quand meme ce temps pour jouer autre chose que le premier coup venu.
+     * */
+    private static final long MIN_SHARED_SEARCH_NANOS = 10_000_000;
+
+    private final int threads;
+    private final ExecutorService pool;
+    private final boolean sharedPool;
+    private SearchStatistics statistics = new SearchStatistics();
+
+    /**
+     * threads le nombre total de threads de recherche, le thread appelant compris.
+     * */
+    public ParallelSearch(int threads) {
+        this.threads = Math.max(1, threads);
+        this.pool = this.threads > 1 ? Executors.newFixedThreadPool(this.threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "recherche");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.sharedPool = false;
+    }
+
+    /**
+     * recherche a un seul thread, executée par sharedPool que d'autres parties utilisent aussi.
+     * L'heure limite part de l'appel: l'attente dans la file du pool est prise sur le temps de recherche
+     * au lieu de s'ajouter au temps de reponse. shutdown ne ferme pas sharedPool.
+     * */
+    public ParallelSearch(ExecutorService sharedPool) {
+        this.threads = 1;
+        this.pool = sharedPool;
+        this.sharedPool = true;
+    }
+
+    /**
+     * nombre de noeuds visités par tous les threads pendant la derniere recherche.
+     * */
+    public long getNodes() {
+        return statistics.getNodes();
+    }
+
+    /**
+     * compteurs de la derniere recherche, additionnés sur tous les threads (iterations: thread appelant seulement).
+     * */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * cherche le meilleur coup de plateau.playerMax pendant timeBudgetMillis et le range dans plateau.moveToSend.
+     * Retourne le score de l'iteration retenue.
+     * */
+    public int search(Plateau plateau, long timeBudgetMillis, int maxDepth) {
+        plateau.getTranspositionTable().newSearch();
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000;
+        if (plateau.getConfig().isMonteCarlo()) {
+            return searchMonteCarlo(plateau, deadline);
+        }
+        if (sharedPool) {
+            return searchShared(plateau, deadline, maxDepth);
+        }
+
+        List<Plateau> helpers = new ArrayList<>();
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            Plateau helper = plateau.copyForHelper();
+            int depthOffset = i & 1;
+            helpers.add(helper);
+            results.add(pool.submit(() -> helper.searchUntil(deadline, maxDepth, depthOffset)));
+        }
+
+        int score = plateau.searchUntil(deadline, maxDepth, 0);
+        SearchStatistics total = plateau.getStatistics().copy();
+
+        for (Plateau helper : helpers) {
+            helper.stopSearch();
+        }
+        for (int i = 0; i < helpers.size(); i++) {
+            Plateau helper = helpers.get(i);
+            int helperScore = waitFor(results.get(i));
+            total.add(helper.getStatistics());
+            if (helper.getCompletedDepth() > plateau.getCompletedDepth()) {
+                plateau.moveToSend = helper.moveToSend;
+                score = helperScore;
+            }
+        }
+        statistics = total;
+        return score;
+    }
+
+    /**
+     * MonteCarloSearch: tous les threads font des parties simulées dans le meme arbre.
+     * */
+    private int searchMonteCarlo(Plateau plateau, long deadline) {
+        MonteCarloSearch mcts = new MonteCarloSearch(plateau);
+        if (sharedPool) {
+            Future<?> result = pool.submit(() -> mcts.run(Math.max(deadline, System.nanoTime() + MIN_SHARED_SEARCH_NANOS)));
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                plateau.stopSearch();
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        } else {
+            List<Future<?>> helpers = new ArrayList<>();
+            for (int i = 1; i < threads; i++) {
+                helpers.add(pool.submit(() -> mcts.run(deadline)));
+            }
+            mcts.run(deadline);
+            for (Future<?> helper : helpers) {
+                waitFor(helper);
+            }
+        }
+        int score = mcts.finish();
+        statistics = plateau.getStatistics().copy();
+        return score;
+    }
+
+    private int searchShared(Plateau plateau, long deadline, int maxDepth) {
+        Future<Integer> result = pool.submit(
+                () -> plateau.searchUntil(Math.max(deadline, System.nanoTime() + MIN_SHARED_SEARCH_NANOS), maxDepth, 0));
+        int score;
+        try {
+            score = result.get();
+        } catch (InterruptedException e) {
+            // la partie est abandonnée: le thread du pool doit passer a la recherche suivante
+            plateau.stopSearch();
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        statistics = plateau.getStatistics().copy();
+        return score;
+    }
+
+    private int waitFor(Future<?> result) {
+        try {
+            Object score = result.get();
+            return score instanceof Integer ? (Integer) score : 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public void shutdown() {
+        if (pool != null && !sharedPool) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Perft: nombre de feuilles de l'arbre de tous les coups legaux jusqu'a une profondeur donnée.
+ *
+ * Sert a deux choses:
+ *  - oracle de non regression: un generateur de coups plus rapide doit donner exactement les memes nombres
+ *    que la table de reference (calculée avec le generateur d'origine, a base de LinkedHashMap);
+ *  - mesure brute du debit de generation/play/undoPlay en noeuds par seconde.
+ *
+ * Comme pour les perft d'echecs, la partie ne s'arrete pas quand un joueur a connecté tous ses pions.
+ *
+ * java Perft                                   verifie la table de reference
+ * java Perft <position> <1|2> <profondeur> [threads]
+ *      position: les 64 chiffres du serveur, 1 ou 2: le joueur qui a le trait (comme setPlayers)
+ * */
+public class Perft {
+
+    private static final String MAIN_POSITION = "0222222040040004400200044000000440000004400000044000000402222220";
+
+    /** position, joueur qui a le trait, puis nombre de feuilles aux profondeurs 1, 2, 3... */
+    private static final Object[][] REFERENCE = {
+            {MAIN_POSITION, '1', new long[] {36, 1294, 45866, 1614232, 56666286}},
+            {MAIN_POSITION, '2', new long[] {38, 1296, 47604, 1620860, 58176575}},
+            {Plateau.START_POSITION, '1', new long[] {36, 1244, 44952, 1563208, 55963132}},
+    };
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.exit(verify() ? 0 : 1);
+        }
+
+        String position = args[0];
+        char player = args[1].charAt(0);
+        int depth = Integer.parseInt(args[2]);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long nodes = threads > 1 ? perftParallel(board(position, player), d, threads) : perft(board(position, player), d);
+            report(d, nodes, System.nanoTime() - start);
+        }
+    }
+
+    private static boolean verify() {
+        boolean ok = true;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (Object[] reference : REFERENCE) {
+            String position = (String) reference[0];
+            char player = (Character) reference[1];
+            long[] expected = (long[]) reference[2];
+            System.out.println(position + " trait au joueur " + player);
+
+            for (int d = 1; d <= expected.length; d++) {
+                long start = System.nanoTime();
+                long nodes = perft(board(position, player), d);
+                long elapsed = System.nanoTime() - start;
+                long parallelNodes = perftParallel(board(position, player), d, threads);
+
+                boolean match = nodes == expected[d - 1] && parallelNodes == nodes;
+                ok &= match;
+                report(d, nodes, elapsed);
+                if (!match) {
+                    System.out.println("  ERREUR: attendu " + expected[d - 1] + ", parallele " + parallelNodes);
+                }
+            }
+        }
+        System.out.println(ok ? "perft OK" : "perft ECHEC");
+        return ok;
+    }
+
+    private static void report(int depth, long nodes, long elapsedNanos) {
+        long nodesPerSecond = elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+        System.out.println("  profondeur " + depth + ": " + nodes + " feuilles, "
+                + elapsedNanos / 1_000_000 + " ms, " + nodesPerSecond + " noeuds/s");
+    }
+
+    private static Plateau board(String position, char player) {
+        Plateau plateau = new Plateau(position);
+        plateau.setPlayers(player);
+        return plateau;
+    }
+
+    /**
+     * perft a un seul thread, playerMax a le trait.
+     * */
+    public static long perft(Plateau plateau, int depth) {
+        return perft(plateau, plateau.playerMax, plateau.playerMin, depth, new int[depth + 1][Plateau.MAX_MOVEMENTS]);
+    }
+
+    /**
+     * buffers[depth] recoit les coups de ce niveau, comme les tampons par ply de la recherche: rien n'est alloué par noeud.
+     * */
+    private static long perft(Plateau plateau, Player joueur, Player adversaire, int depth, int[][] buffers) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        int[] mouvements = buffers[depth];
+        int count = plateau.generateMovements(joueur.getCurrent(), mouvements, 0);
+        if (depth == 1) {
+            // les feuilles sont comptées sans etre jouées
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            plateau.play(mouvements[i], joueur);
+            nodes += perft(plateau, adversaire, joueur, depth - 1, buffers);
+            plateau.undoPlay(mouvements[i], joueur);
+        }
+        return nodes;
+    }
+
+    /**
+     * perft reparti par coup de la racine: chaque coup est compté sur sa propre copie du plateau.
+     * */
+    public static long perftParallel(Plateau plateau, int depth, int threads) {
+        if (depth <= 1) {
+            return perft(plateau, depth);
+        }
+
+        int[] mouvements = new int[Plateau.MAX_MOVEMENTS];
+        int count = plateau.generateMovements(plateau.playerMax.getCurrent(), mouvements, 0);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                int mouvement = mouvements[i];
+                Plateau copy = new Plateau(plateau);
+                results.add(pool.submit(() -> {
+                    copy.play(mouvement, copy.playerMax);
+                    return perft(copy, copy.playerMin, copy.playerMax, depth - 1, new int[depth][Plateau.MAX_MOVEMENTS]);
+                }));
+            }
+
+            long nodes = 0;
+            for (Future<Long> result : results) {
+                nodes += result.get();
+            }
+            return nodes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
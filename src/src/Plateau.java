@@ -1,34 +1,207 @@
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 public class Plateau {
 
     public Player playerMax; 
     public Player playerMin;
-    public String moveToSend;
+    public int moveToSend;
     private String[] lettres={"A","B","C","D","E","F","G","H"};
     private int colonne=0; // permet de changer de colonne quand je veux placer les pion dans mon tableau
-    private Map<String,Character> mapPlateau = new LinkedHashMap<>();
-    private int piecesRestante = 12;
-    
-    private int[] dx = { 0, 1, 1, 1, 0, -1, -1, -1 };
-    private int[] dy = { 1, 1, 0, -1, -1, -1, 0, 1 };
 
-    private ArrayList<String> previousPlayerPieces = new ArrayList<>();
-    private ArrayList<String> previousOpponentPieces = new ArrayList<>();
+    /**
+     * Le plateau est gardé sous forme de deux bitboards, un long de 64 bits par camp.
+     * La case (row, col) correspond au bit (row - 1) * 8 + col : A1 est le bit 0, H1 le bit 7 et H8 le bit 63.
+     * Un bit a 1 dans piecesX (resp. piecesO) veut dire qu'un pion X (resp. O) occupe la case.
+     * */
+    private long piecesX;
+    private long piecesO;
+
+    /**
+     * Nombre de pions (des deux camps) sur chaque ligne, colonne et diagonale, tenu a jour par setPiece.
+     * La distance d'un coup est le nombre de pions sur sa ligne: c'est une simple lecture de tableau.
+     * diagonalCounts est indexé par (row - 1) - col + 7 (A1-H8) et antiDiagonalCounts par (row - 1) + col (A8-H1).
+     * */
+    private int[] rowCounts = new int[8];
+    private int[] columnCounts = new int[8];
+    private int[] diagonalCounts = new int[15];
+    private int[] antiDiagonalCounts = new int[15];
+
+    /**
+     * Clé de Zobrist des pions du plateau, tenue a jour par setPiece (donc par play et undoPlay).
+     * Le trait n'en fait pas partie: la recherche combine la clé avec Zobrist.sideToMove.
+     * */
+    private long zobristKey;
+
+    /**
+     * Termes de l'evaluation tenus a jour par setPiece au lieu d'etre recalculés a chaque feuille,
+     * indexés par side(player): nombre de pions, pions au centre et paires de pions a distance 2 ou moins.
+     * Retirer ou poser un pion ne change que les paires qu'il forme avec les pions de NEAR[case].
+     * */
+    private int[] pieceCounts = new int[2];
+    private int[] centerCounts = new int[2];
+    private int[] proximityPairs = new int[2];
+    private static final long[] NEAR = new long[64];
+
+    /**
+     * Nombre d'Euler de chaque camp (groupes moins trous, en 8-voisinage) par les carrés 2x2 ("quads") du plateau
+     * bordé d'une rangée vide, 9x9 quads: E = (Q1 - Q3 - 2 * Qd) / 4, Q1 les quads a un pion, Q3 a trois pions et
+     * Qd a deux pions en diagonale. eulerQuads[side] garde Q1 - Q3 - 2 * Qd, soit 4 * E.
+     * Un pion n'est que dans 4 quads, tous dans le carré 3x3 autour de lui: poser ou retirer un pion change la somme
+     * de EULER_DELTA[voisins], lu dans une table des 256 voisinages possibles. Un coup change donc 8 quads en O(1).
+     * Un trou demande au moins 4 pions autour d'une case vide: E est presque toujours le nombre de groupes,
+     * et E > 1 suffit a savoir que les pions ne sont pas connectés, sans remplissage (voir isConnected).
+     * */
+    private int[] eulerQuads = new int[2];
+    private static final int[] EULER_DELTA = new int[512];
+
+    static {
+        for (int square1 = 0; square1 < 64; square1++) {
+            for (int square2 = 0; square2 < 64; square2++) {
+                if (square1 != square2 && calculateDistance(square1, square2) <= 2) {
+                    NEAR[square1] |= 1L << square2;
+                }
+            }
+        }
+        // voisinage 3x3 sur 9 bits, ligne par ligne, le pion au bit 4; ses 4 quads ont leur coin bas-gauche en 0, 1, 3 et 4
+        for (int window = 0; window < 512; window++) {
+            if ((window & (1 << 4)) != 0) {
+                continue;
+            }
+            int delta = 0;
+            for (int corner : new int[] {0, 1, 3, 4}) {
+                delta += quadEuler(window | (1 << 4), corner) - quadEuler(window, corner);
+            }
+            EULER_DELTA[window] = delta;
+        }
+    }
+
+    /**
+     * contribution a Q1 - Q3 - 2 * Qd du quad du voisinage 3x3 window dont le coin bas-gauche est le bit corner.
+     * */
+    private static int quadEuler(int window, int corner) {
+        boolean a = (window & (1 << corner)) != 0;
+        boolean b = (window & (1 << (corner + 1))) != 0;
+        boolean c = (window & (1 << (corner + 3))) != 0;
+        boolean d = (window & (1 << (corner + 4))) != 0;
+        int count = (a ? 1 : 0) + (b ? 1 : 0) + (c ? 1 : 0) + (d ? 1 : 0);
+        if (count == 1) {
+            return 1;
+        }
+        if (count == 3) {
+            return -1;
+        }
+        return count == 2 && a == d ? -2 : 0;
+    }
+
+    static final int TRANSPOSITION_TABLE_MB = 64;
+    private TranspositionTable transpositionTable;
+    static final int EVALUATION_CACHE_MB = 16;
+    private EvaluationCache evaluationCache;
+
+    /** poids de l'evaluation et reglages de la recherche, voir EngineConfig */
+    private EngineConfig config = EngineConfig.DEFAULT;
+
+    /**
+     * Etat de la recherche iterative: temps par coup par defaut, heure limite et meilleur coup de l'iteration en cours.
+     * Quand l'heure limite est depassée, searchAborted remonte toute la recursion et l'iteration est ignorée.
+     * */
+    public static final long DEFAULT_TIME_BUDGET_MS = 2000;
+    /** heure limite d'une recherche sans limite de temps: loin, mais sans deborder dans searchUntil */
+    private static final long UNLIMITED_TIME_NANOS = Long.MAX_VALUE / 4;
+    public static final int MAX_DEPTH = 64;
+    private static final int TIME_CHECK_INTERVAL = 256;
+    private long deadline;
+    /** noeuds au dela desquels la recherche s'arrete comme a l'heure limite (config.getNodeLimit()) */
+    private long nodeLimit = Long.MAX_VALUE;
+    private volatile boolean stopRequested;
+    private boolean searchAborted;
+    private int rootBestMove;
+    private int completedDepth;
+
+    /** compteurs de la recherche en cours ou de la derniere, propres a ce plateau (voir SearchStatistics) */
+    private final SearchStatistics statistics = new SearchStatistics();
+
+    /**
+     * Ordre des coups: coup de la table de transposition, prises, deux coups "killer" par ply
+     * (coups calmes qui ont coupé a la meme distance de la racine) puis l'historique des coupures
+     * indexé par case de depart * 64 + case d'arrivée.
+     * */
+    private static final int HASH_MOVE_SCORE = 1_000_000;
+    private static final int CAPTURE_SCORE = 500_000;
+    private static final int KILLER_SCORE = 400_000;
+    private static final int HISTORY_MAX = 100_000;
+    private int[][] killers = new int[MAX_DEPTH][2];
+    private int[] history = new int[64 * 64];
+
+    /**
+     * Tampons de la generation des coups: le noeud a ply ecrit ses coups (et leurs scores pour le tri) dans
+     * moveBuffers[ply], ses enfants dans moveBuffers[ply + 1]; la recherche n'alloue donc rien par noeud.
+     * La quiescence peut aller MAX_QUIESCENCE_DEPTH plis plus loin que MAX_DEPTH.
+     * Au plus 8 coups par pion (deux sens sur quatre lignes) et 12 pions: MAX_MOVEMENTS.
+     * */
+    static final int MAX_PIECE_MOVEMENTS = 8;
+    public static final int MAX_MOVEMENTS = 12 * MAX_PIECE_MOVEMENTS;
+    private final int[][] moveBuffers = new int[MAX_DEPTH + MAX_QUIESCENCE_DEPTH + 1][MAX_MOVEMENTS];
+    private final int[][] scoreBuffers = new int[MAX_DEPTH + MAX_QUIESCENCE_DEPTH + 1][MAX_MOVEMENTS];
+    private final int[] mobilityBuffer = new int[MAX_MOVEMENTS];
+
+    /**
+     * Recherche de quiescence: a l'horizon on continue seulement les coups qui changent la connexion des groupes
+     * (prises, qui peuvent couper un groupe adverse, et coups qui relient deux de nos groupes).
+     * MAX_QUIESCENCE_DEPTH borne la longueur de ces sequences; les coups qui relient ne sont essayés que sur les
+     * QUIESCENCE_CONNECTION_DEPTH premiers plis, il y en a trop pour les suivre plus loin. QUIESCENCE_DELTA est le plus grand gain qu'on
+     * attend d'un seul coup qui ne gagne pas la partie: si meme ce gain ne ramene pas le score dans la fenetre,
+     * le coup n'est pas cherché (delta pruning).
+     * */
+    private static final int MAX_QUIESCENCE_DEPTH = 6;
+    private static final int QUIESCENCE_CONNECTION_DEPTH = 1;
+    private static final int QUIESCENCE_DELTA = 200;
+
+    /**
+     * Recherche selective, chaque technique se regle ou se desactive dans EngineConfig.
+     *
+     * Coup nul: le joueur passe son tour et l'adversaire cherche a profondeur - 1 - R avec une fenetre nulle.
+     * Si meme sans jouer le score reste hors de la fenetre, un vrai coup ferait au moins aussi bien et on coupe.
+     * C'est faux en zugzwang (quand tout coup empire la position): pas de coup nul deux fois de suite, ni dans la
+     * variante principale, ni pres d'un score de victoire, ni quand l'evaluation statique est deja dans la fenetre,
+     * ni quand il reste NULL_MOVE_MIN_PIECES pions ou moins au joueur: avec peu de pions il a peu de coups et
+     * chacun peut defaire son groupe.
+     *
+     * LMR: apres les config.getLateMoveThreshold() premiers coups, un coup calme (ni coup de la table, ni prise,
+     * ni killer) est cherché un pli moins profond, deux plis apres LMR_DEEP_MOVES coups. S'il fait mieux que
+     * prevu il est cherché de nouveau a la profondeur normale.
+     *
+     * Futilité: a un pli de l'horizon, un coup calme n'est pas cherché si l'evaluation statique plus la marge
+     * ne ramene pas le score dans la fenetre, sauf s'il connecte nos pions.
+     * */
+    private static final int NULL_MOVE_MIN_PIECES = 4;
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_DEEP_MOVES = 12;
+    private final boolean[] nullMoves = new boolean[MAX_DEPTH + 1];
+
+    /**
+     * Scores de fin de partie, du point de vue de playerMax comme tous les scores de la recherche:
+     * WIN_SCORE - ply pour une victoire a ply demi-coups de la racine, -(WIN_SCORE - ply) pour une defaite.
+     * La victoire la plus proche vaut donc plus que les autres, et la defaite la plus lointaine est la moins mauvaise.
+     * WIN_SCORE est loin des bornes d'un int (alpha + 1, beta - 1 ne debordent jamais) et bien au dessus
+     * de toute evaluation: au dela de WIN_THRESHOLD c'est une fin de partie. INFINITY borne la fenetre complete.
+     * */
+    public static final int WIN_SCORE = 1_000_000;
+    static final int WIN_THRESHOLD = WIN_SCORE - 1000;
+    static final int INFINITY = WIN_SCORE + 1;
+    
+    /** position de depart, au format du serveur (voir Plateau(String)) */
+    public static final String START_POSITION = "0222222040000004400000044000000440000004400000044000000402222220";
 
     /**
      * configPlateau le string generé par le serveur au depart
      * ici on recupere la string generé par le serveur afin d'avoir la configuration de base du tableau.
      * on place les pions( ici nos pions sont x pour les rouges et O pour les noirs)
      *
-     * le but ici est de faciliter la recherche et la modification. exple: si le serveur joue D6-D8 on fai la recherche de D8 dans la
-     * mapPlateau et on place le pion du serveur de D6 a D8 et on supprime ce qui se trouve dans D6.
+     * la string commence par A8 et se lit ligne par ligne jusqu'a H1; chaque pion est place dans le bitboard de son camp.
      * */
     public Plateau(String configPlateau){
         String plateauToTrim = configPlateau.replaceAll("\\s", "");
@@ -38,11 +211,9 @@ public class Plateau {
         for(int i=1;i<=tab.length;i++){
 
                 if(tab[i-1]=='2'){
-                    mapPlateau.put(lettres[colonne]+String.valueOf(9-j),'X');
+                    setPiece(toSquare(9-j, colonne),'X');
                 }else if(tab[i-1]=='4'){
-                    mapPlateau.put(lettres[colonne]+String.valueOf(9-j),'O');
-                }else{
-                    mapPlateau.put(lettres[colonne]+String.valueOf(9-j),'.');
+                    setPiece(toSquare(9-j, colonne),'O');
                 }
 
                 if(i%8==0){
@@ -54,207 +225,333 @@ public class Plateau {
         }
     }
 
+    /**
+     * copie du plateau (pions, compteurs, clé de Zobrist, joueurs et configuration) avec son propre etat de recherche,
+     * sans table de transposition ni cache d'evaluation: voir copyForHelper pour chercher avec ceux de l'original.
+     * */
+    public Plateau(Plateau plateau){
+        this.playerMax = plateau.playerMax;
+        this.playerMin = plateau.playerMin;
+        this.piecesX = plateau.piecesX;
+        this.piecesO = plateau.piecesO;
+        this.rowCounts = plateau.rowCounts.clone();
+        this.columnCounts = plateau.columnCounts.clone();
+        this.diagonalCounts = plateau.diagonalCounts.clone();
+        this.antiDiagonalCounts = plateau.antiDiagonalCounts.clone();
+        this.zobristKey = plateau.zobristKey;
+        this.pieceCounts = plateau.pieceCounts.clone();
+        this.centerCounts = plateau.centerCounts.clone();
+        this.proximityPairs = plateau.proximityPairs.clone();
+        this.eulerQuads = plateau.eulerQuads.clone();
+        this.config = plateau.config;
+    }
+
+    /**
+     * copie qui cherche avec la table de transposition et le cache d'evaluation de ce plateau (crees s'il le faut):
+     * threads auxiliaires de ParallelSearch et de MonteCarloSearch, reflexion pendant le temps de l'adversaire.
+     * */
+    public Plateau copyForHelper() {
+        Plateau copy = new Plateau(this);
+        copy.transpositionTable = getTranspositionTable();
+        copy.evaluationCache = getEvaluationCache();
+        return copy;
+    }
+
     public Plateau(Map<String,Character> plateau){
-        this.mapPlateau.putAll(plateau);
+        for(Map.Entry<String,Character> entry : plateau.entrySet()){
+            setPiece(toSquare(entry.getKey()), entry.getValue());
+        }
     }
     public Plateau() {
         //TODO Auto-generated constructor stub
     }
 
     /**
-     *  prends en entrée la position du pion et retourne la liste des jeux possible: Exple:  C8 retur <liste> C9,B3, E9 </liste>
-     *  les lettres A,B,C,D.... doivent etre en majuscule...
+     *  retourne une copie du plateau sous forme de map (A8, B8, ... H1) -> 'X', 'O' ou '.'
+     *  la map est construite a partir des bitboards, la modifier ne change pas le plateau.
      * */
     public Map<String,Character> getMapPlateau() {
-        return this.mapPlateau;
+        Map<String,Character> mapPlateau = new LinkedHashMap<>();
+        for(int row = 8; row >= 1; row--){
+            for(int col = 0; col < 8; col++){
+                mapPlateau.put(lettres[col] + row, getPiece(row, col));
+            }
+        }
+        return mapPlateau;
     }
 
     /**
-     *  prends en entrée la position du pion et retourne la liste des jeux possible: Exple:  C8 retur <liste> C9,B3, E9 </liste>
-     *  les lettres A,B,C,D.... doivent etre en majuscule...
+     * index du bit de la case (row, col), row de 1 a 8 et col de 0 (A) a 7 (H).
      * */
-    public List<String> generateMovements(String position, char player) {
-        List<String> movements = new ArrayList<>();
-        char currentPlayer = player;
-
-        // Vérifie si la position est valide et non vide
-        //System.out.println("Je suis le joueur #"+currentPlayer+"\n");
-        if (isValidStartPosition(position, currentPlayer)) {
-            int row = position.charAt(1) - '0';
-            int col = position.charAt(0) - 'A';
-        
-            // Génère les mouvements pour chaque direction
-            //System.out.println("generateVerticalMovements :"+generateVerticalMovements(row, col, currentPlayer));
-            movements.addAll(generateVerticalMovements(row, col, currentPlayer));
-
-            //System.out.println("generateHorizontalMovements :"+generateHorizontalMovements(row, col, currentPlayer));
-            movements.addAll(generateHorizontalMovements(row, col, currentPlayer));
+    private static int toSquare(int row, int col) {
+        return (row - 1) * 8 + col;
+    }
 
-            //System.out.println("generateDiagonalForwardMovements :"+generateDiagonalForwardMovements(row, col, currentPlayer));
-            movements.addAll(generateDiagonalForwardMovements(row, col, currentPlayer));
+    /**
+     * index du bit d'une position de la forme "D6".
+     * */
+    private static int toSquare(String position) {
+        return Move.parseSquare(position);
+    }
 
-            //System.out.println("generateDiagonalBackwardMovements :"+generateDiagonalBackwardMovements(row, col, currentPlayer));
-            movements.addAll(generateDiagonalBackwardMovements(row, col, currentPlayer));
+    /**
+     * retourne 'X', 'O' ou '.' selon ce qui occupe la case (row, col).
+     * */
+    public char getPiece(int row, int col) {
+        long bit = 1L << toSquare(row, col);
+        if ((piecesX & bit) != 0) {
+            return 'X';
+        } else if ((piecesO & bit) != 0) {
+            return 'O';
         }
-
-        return movements;
+        return '.';
     }
 
-    private boolean isValidStartPosition(String position, char currentPlayer) {
-        return mapPlateau.containsKey(position) && mapPlateau.get(position).equals(currentPlayer);
+    private char getPiece(String position) {
+        return getPiece(position.charAt(1) - '0', position.charAt(0) - 'A');
     }
 
-    private int countVerticalPieces(int row, int col) {
-        int count = 0;
-        for (int i = 1; i <= 8; i++) {
-            String position = lettres[col] + i;
-            if (mapPlateau.containsKey(position) && !mapPlateau.get(position).equals('.')) {
-                count++;
-            }
+    /**
+     * place piece ('X', 'O' ou '.') sur la case, ce qui etait sur la case est enlevé.
+     * les compteurs de ligne, colonne et diagonales sont ajustés si la case passe de vide a occupée ou l'inverse.
+     * */
+    private void setPiece(int square, char piece) {
+        long bit = 1L << square;
+        boolean wasOccupied = ((piecesX | piecesO) & bit) != 0;
+        if ((piecesX & bit) != 0) {
+            zobristKey ^= Zobrist.piece('X', square);
+            updateEvaluationTerms(0, piecesX, square, -1);
+        } else if ((piecesO & bit) != 0) {
+            zobristKey ^= Zobrist.piece('O', square);
+            updateEvaluationTerms(1, piecesO, square, -1);
+        }
+        zobristKey ^= Zobrist.piece(piece, square);
+        piecesX &= ~bit;
+        piecesO &= ~bit;
+        if (piece == 'X') {
+            piecesX |= bit;
+            updateEvaluationTerms(0, piecesX, square, 1);
+        } else if (piece == 'O') {
+            piecesO |= bit;
+            updateEvaluationTerms(1, piecesO, square, 1);
         }
 
-        return count;
+        boolean isOccupied = piece == 'X' || piece == 'O';
+        if (wasOccupied != isOccupied) {
+            updateLineCounts(square, isOccupied ? 1 : -1);
+        }
     }
 
-    private int countHorizontalPieces(int row, int col) {
-        int count = 0;
-
-        for (int j = 0; j < 8; j++) {
-            String position = lettres[j] + row;
-            if ( mapPlateau.containsKey(position) && !mapPlateau.get(position).equals('.')) {
-                count++;
-            }
+    private void updateEvaluationTerms(int side, long pieces, int square, int delta) {
+        pieceCounts[side] += delta;
+        if ((CENTER_MASK & (1L << square)) != 0) {
+            centerCounts[side] += delta;
         }
-
-        return count;
+        proximityPairs[side] += delta * Long.bitCount(pieces & NEAR[square]);
+        eulerQuads[side] += delta * EULER_DELTA[neighbourhood(pieces, square)];
     }
 
-    private int countDiagonalForwardPieces(int row, int col) {
-        int count = 0;
-
-        // Ascendant
-        for (int i = row , j = col; i >= 1 && j >= 0; i--, j--) {
-            String position = lettres[j] + i;
-            if (!mapPlateau.get(position).equals('.')) {
-                count++;
-            } 
+    /**
+     * les 8 voisins de la case dans pieces, en voisinage 3x3 de 9 bits (voir EULER_DELTA), la case elle-meme exclue.
+     * Chaque ligne est decalée d'un bit pour que la colonne a gauche de A lise une case vide.
+     * */
+    private static int neighbourhood(long pieces, int square) {
+        int row = square >>> 3;
+        int col = square & 7;
+        int window = 0;
+        for (int r = Math.max(0, row - 1); r <= Math.min(7, row + 1); r++) {
+            int rank = (int) ((pieces >>> (r * 8)) & 0xFF) << 1;
+            window |= ((rank >>> col) & 7) << (3 * (r - row + 1));
         }
+        return window & ~(1 << 4);
+    }
 
-        // Descendant
-        for (int i = row + 1, j = col + 1; i <= 8 && j < 8; i++, j++) {
-            String position = lettres[j] + i;
-            if ( !mapPlateau.get(position).equals('.')) {
-                count++;
-            } 
-        }
+    private static int side(char player) {
+        return player == 'X' ? 0 : 1;
+    }
 
-        return count;
+    public int getPieceCount(char player) {
+        return pieceCounts[side(player)];
     }
 
-    private int countDiagonalBackwardPieces(int row, int col) {
-        int count = 0;
+    private void updateLineCounts(int square, int delta) {
+        int row = square >>> 3;
+        int col = square & 7;
+        rowCounts[row] += delta;
+        columnCounts[col] += delta;
+        diagonalCounts[row - col + 7] += delta;
+        antiDiagonalCounts[row + col] += delta;
+    }
 
-        for (int i = row + 1, j = col - 1; i <= 8 && j >= 0; i++, j--) {
-            String position = lettres[j] + i;
-            if (!mapPlateau.get(position).equals('.')) {
-                count++;
-            } 
-        }
+    /**
+     * vrai si tous les pions du joueur sont connectés (le joueur a gagné).
+     * Les groupes sont au moins aussi nombreux que le nombre d'Euler: plus d'un, pas besoin du remplissage.
+     * */
+    public boolean isConnected(char player) {
+        return getEulerNumber(player) <= 1 && Connectivity.isConnected(getPieces(player));
+    }
 
-        for (int i = row, j = col; i >= 1 && j < 8; i--, j++) {
-            String position = lettres[j] + i;
-            if (!mapPlateau.get(position).equals('.')) {
-                count++;
-            } 
+    /**
+     * gagnant ('X' ou 'O') apres un coup de mover, 0 si la partie continue.
+     * Un coup qui connecte les pions des deux camps a la fois gagne pour celui qui l'a joué.
+     * */
+    public char winnerAfter(char mover) {
+        char other = mover == 'X' ? 'O' : 'X';
+        if (isConnected(mover)) {
+            return mover;
         }
+        return isConnected(other) ? other : 0;
+    }
 
-        return count;
+    /**
+     * nombre d'Euler des pions du joueur: nombre de groupes moins nombre de trous (cases vides entourées).
+     * */
+    public int getEulerNumber(char player) {
+        return eulerQuads[side(player)] / 4;
     }
 
-    public List<String> generateVerticalMovements(int row, int col, char currentPlayer) {
-        List<String> movements = new ArrayList<>();
+    public long getZobristKey() {
+        return zobristKey;
+    }
 
-        for (int i = -1; i <= 1; i++) {
-            if (i == 0) continue;
+    public TranspositionTable getTranspositionTable() {
+        if (transpositionTable == null) {
+            transpositionTable = new TranspositionTable(config.getTableMb());
+        }
+        return transpositionTable;
+    }
 
-            int newRow = row + i * countVerticalPieces(row, col);
-            int newCol = col;
+    public void setTranspositionTable(TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+    }
 
-            if (isValidMove(newRow, newCol) && isMoveValidForPiece(row, col, newRow, newCol, currentPlayer)) {
-                movements.add(generateMoveString(row, col, newRow, newCol));
-            }
+    public EvaluationCache getEvaluationCache() {
+        if (evaluationCache == null) {
+            evaluationCache = new EvaluationCache(config.getEvaluationCacheMb());
         }
+        return evaluationCache;
+    }
 
-        return movements;
+    public void setEvaluationCache(EvaluationCache evaluationCache) {
+        this.evaluationCache = evaluationCache;
     }
 
-    public List<String> generateHorizontalMovements(int row, int col, char currentPlayer) {
-        List<String> movements = new ArrayList<>();
+    public EngineConfig getConfig() {
+        return config;
+    }
 
-        for (int j = -1; j <= 1; j++) {
-            if (j == 0) continue;
+    /**
+     * change les poids et reglages du moteur; les evaluations deja dans le cache restent celles de l'ancienne configuration.
+     * */
+    public void setConfig(EngineConfig config) {
+        this.config = config;
+    }
 
-            int newRow = row;
-            int newCol = col + j * countHorizontalPieces(row, col);
+    long getPieces(char player) {
+        if (player == 'X') {
+            return piecesX;
+        } else if (player == 'O') {
+            return piecesO;
+        }
+        return ~(piecesX | piecesO);
+    }
 
-            if (isValidMove(newRow, newCol) && isMoveValidForPiece(row, col, newRow, newCol, currentPlayer)) {
-                movements.add(generateMoveString(row, col, newRow, newCol));
+    /**
+     *  prends en entrée la case du pion (index du bit, voir Move) et retourne la liste des coups possibles encodés en int.
+     *  Exple: D8 retourne <liste> D8-B6, D8-F6 </liste> (Move.toString pour l'affichage)
+     *  Cette version alloue une liste: elle sert hors de la recherche (livre, serveur local, affichage).
+     * */
+    public List<Integer> generateMovements(int square, char player) {
+        List<Integer> movements = new ArrayList<>();
+        if (isValidStartPosition(square, player)) {
+            int[] buffer = new int[MAX_PIECE_MOVEMENTS];
+            int count = generatePieceMovements(square, player, buffer, 0);
+            for (int i = 0; i < count; i++) {
+                movements.add(buffer[i]);
             }
         }
-
         return movements;
     }
 
-    public List<String> generateDiagonalForwardMovements(int row, int col, char currentPlayer) {
-        List<String> movements = new ArrayList<>();
+    /**
+     * ecrit tous les coups de player dans buffer a partir de offset et retourne leur nombre, sans rien allouer.
+     * Les pions sont pris dans l'ordre d'affichage du plateau (A8, B8, ... H1); buffer doit avoir
+     * MAX_MOVEMENTS cases libres apres offset.
+     * */
+    public int generateMovements(char player, int[] buffer, int offset) {
+        long pieces = getPieces(player);
+        int count = offset;
+        for (int row = 7; row >= 0; row--) {
+            for (long rank = (pieces >>> (row * 8)) & 0xFFL; rank != 0; rank &= rank - 1) {
+                count = generatePieceMovements(row * 8 + Long.numberOfTrailingZeros(rank), player, buffer, count);
+            }
+        }
+        return count - offset;
+    }
 
-        int count = countDiagonalForwardPieces(row, col);
+    /**
+     * coups du pion de square ecrits a partir de buffer[count], retourne le nouveau count.
+     * Dans chaque direction (colonne, rangée, les deux diagonales) le pion avance d'autant de cases
+     * qu'il y a de pions sur la ligne, dans un sens puis dans l'autre.
+     * */
+    private int generatePieceMovements(int square, char currentPlayer, int[] buffer, int count) {
+        int row = (square >>> 3) + 1;
+        int col = square & 7;
+
+        int vertical = countVerticalPieces(row, col);
+        count = addMovement(row, col, row - vertical, col, currentPlayer, buffer, count);
+        count = addMovement(row, col, row + vertical, col, currentPlayer, buffer, count);
+
+        int horizontal = countHorizontalPieces(row, col);
+        count = addMovement(row, col, row, col - horizontal, currentPlayer, buffer, count);
+        count = addMovement(row, col, row, col + horizontal, currentPlayer, buffer, count);
+
+        // diagonale A1-H8: vers le haut et la gauche puis vers le bas et la droite
+        int forward = countDiagonalForwardPieces(row, col);
+        count = addMovement(row, col, row - forward, col - forward, currentPlayer, buffer, count);
+        count = addMovement(row, col, row + forward, col + forward, currentPlayer, buffer, count);
+
+        // diagonale A8-H1: vers le haut et la droite puis vers le bas et la gauche
+        int backward = countDiagonalBackwardPieces(row, col);
+        count = addMovement(row, col, row - backward, col + backward, currentPlayer, buffer, count);
+        count = addMovement(row, col, row + backward, col - backward, currentPlayer, buffer, count);
+        return count;
+    }
 
-        // Mouvement en diagonale vers le haut et la gauche
-        int newRow = row - count;
-        int newCol = col - count;
+    private int addMovement(int row, int col, int newRow, int newCol, char currentPlayer, int[] buffer, int count) {
         if (isValidMove(newRow, newCol) && isMoveValidForPiece(row, col, newRow, newCol, currentPlayer)) {
-            movements.add(generateMoveString(row, col, newRow, newCol));
-        }
-
-        // Mouvement en diagonale vers le bas et la droite
-        int newRow2 = row + count;
-        int newCol2 = col + count;
-        if (isValidMove(newRow2, newCol2) && isMoveValidForPiece(row, col, newRow2, newCol2, currentPlayer)) {
-            movements.add(generateMoveString(row, col, newRow2, newCol2));
+            buffer[count++] = encodeMove(row, col, newRow, newCol, currentPlayer);
         }
-
-        return movements;
+        return count;
     }
 
-    public List<String> generateDiagonalBackwardMovements(int row, int col, char currentPlayer) {
-        List<String> movements = new ArrayList<>();
+    private boolean isValidStartPosition(int square, char currentPlayer) {
+        return square >= 0 && square < 64 && (getPieces(currentPlayer) & (1L << square)) != 0;
+    }
 
-        int count = countDiagonalBackwardPieces(row, col);
+    private int countVerticalPieces(int row, int col) {
+        return columnCounts[col];
+    }
 
-        // Mouvement en diagonale vers le haut et la droite
-        int newRow = row - count;
-        int newCol = col + count;
-        if (isValidMove(newRow, newCol) && isMoveValidForPiece(row, col, newRow, newCol, currentPlayer)) {
-            movements.add(generateMoveString(row, col, newRow, newCol));
-        }
+    private int countHorizontalPieces(int row, int col) {
+        return rowCounts[row - 1];
+    }
 
-        // Mouvement en diagonale vers le bas et la gauche
-        int newRow2 = row + count;
-        int newCol2 = col - count;
-        if (isValidMove(newRow2, newCol2) && isMoveValidForPiece(row, col, newRow2, newCol2, currentPlayer)) {
-            movements.add(generateMoveString(row, col, newRow2, newCol2));
-        }
+    private int countDiagonalForwardPieces(int row, int col) {
+        // diagonale A1-H8: (row - 1) - col est constant
+        return diagonalCounts[row - 1 - col + 7];
+    }
 
-        return movements;
+    private int countDiagonalBackwardPieces(int row, int col) {
+        // diagonale A8-H1: (row - 1) + col est constant
+        return antiDiagonalCounts[row - 1 + col];
     }
 
     private boolean isMoveValidForPiece(int fromRow, int fromCol, int toRow, int toCol, char currentPlayer) {
-        String toPosition = lettres[toCol] + toRow;
         char playerSymbol = currentPlayer;
     
         // Vérifier si la case de destination est valide et s'il y a un pion de son camp sur la case de destination
-        if (!isValidMove(toRow, toCol) || (mapPlateau.containsKey(toPosition) && mapPlateau.get(toPosition).equals(playerSymbol))) {
+        if (!isValidMove(toRow, toCol) || getPiece(toRow, toCol) == playerSymbol) {
             return false;
         }
     
@@ -278,10 +575,9 @@ public class Plateau {
         int i = fromRow + rowIncrement;
         int j = fromCol + colIncrement;
     
+        long opponentPieces = (currentPlayer == 'O') ? piecesX : piecesO;
         while (i != toRow || j != toCol) {
-            String position = lettres[j] + i;
-            char opponentSymbol = (currentPlayer == 'O') ? 'X': 'O';
-            if (mapPlateau.containsKey(position) && mapPlateau.get(position).equals(opponentSymbol)) {
+            if ((opponentPieces & (1L << toSquare(i, j))) != 0) {
                 return false; // Il y a un pion adverse entre la position actuelle et la position future
             }
             i += rowIncrement;
@@ -295,37 +591,63 @@ public class Plateau {
         return row >= 1 && row <= 8 && col >= 0 && col < 8;
     }
 
-    private String generateMoveString(int fromRow, int fromCol, int toRow, int toCol) {
-        return lettres[fromCol] + fromRow + "-" + lettres[toCol] + toRow;
+    private int encodeMove(int fromRow, int fromCol, int toRow, int toCol, char currentPlayer) {
+        char opponentSymbol = (currentPlayer == 'O') ? 'X' : 'O';
+        boolean capture = getPiece(toRow, toCol) == opponentSymbol;
+        return Move.encode(toSquare(fromRow, fromCol), toSquare(toRow, toCol), capture);
     }
 
     /**
  * Évalue la position actuelle du joueur dans le jeu.
+ * La meme position revient souvent d'un sous-arbre a l'autre: le resultat est gardé dans le cache d'evaluation.
  * @param player Le joueur dont la position est évaluée.
  * @return La valeur de l'évaluation de la position.
  */
     public int evaluate(Player player) {
-        int cpuPieces = Collections.frequency(mapPlateau.values(), player.getCurrent());
-        int adversePieces = Collections.frequency(mapPlateau.values(), player.getOppenent());
-        int cpuConnectedPieces = examinePlateau(player.getCurrent()).size();
-        int adverseConnectedPieces = examinePlateau(player.getOppenent()).size();
+        statistics.evaluations++;
+        EvaluationCache cache = getEvaluationCache();
+        long key = zobristKey ^ Zobrist.sideToMove(player.getCurrent());
+        long entry = cache.probe(key);
+        if (entry != 0) {
+            statistics.evaluationCacheHits++;
+            return EvaluationCache.score(entry);
+        }
 
-        int mobilityScore = calculateMobilityScore(player.getCurrent());
-        int centerControlScore = calculateCenterControlScore(player.getCurrent());
-        int convergenceScore = calculateConvergenceScore(player.getCurrent());
+        int evaluation = computeEvaluation(player);
+        cache.store(key, evaluation);
+        return evaluation;
+    }
+
+    /**
+     * evaluation complete, sans passer par le cache (utilisée aussi par les benchmarks).
+     * */
+    int computeEvaluation(Player player) {
+        long cpuPieces = getPieces(player.getCurrent());
+        long adversePieces = getPieces(player.getOppenent());
 
         int evaluation = 0;
 
-        if(cpuConnectedPieces == cpuPieces){
-            evaluation = Integer.MAX_VALUE;
-        }else if(adverseConnectedPieces == adversePieces){
-            evaluation = Integer.MIN_VALUE;
+        // victoire: tous les pions forment un seul groupe; le nombre d'Euler l'exclut le plus souvent sans remplissage
+        if(isConnected(player.getCurrent())){
+            evaluation = WIN_SCORE;
+        }else if(isConnected(player.getOppenent())){
+            evaluation = -WIN_SCORE;
         }else{
-             // Ajustez les poids en fonction de l'importance relative de chaque composante
-            evaluation = (cpuConnectedPieces - adverseConnectedPieces) * 25 +
-                          mobilityScore * 10 +
-                          centerControlScore * 15 +
-                          convergenceScore * 10;
+            int cpuConnectedPieces = Connectivity.largestGroup(cpuPieces);
+            int adverseConnectedPieces = Connectivity.largestGroup(adversePieces);
+
+            int mobilityScore = calculateMobilityScore(player.getCurrent());
+            int centerControlScore = calculateCenterControlScore(player.getCurrent());
+            int convergenceScore = calculateConvergenceScore(player.getCurrent());
+            // moins de groupes que l'adversaire, lu dans les quads tenus a jour par setPiece
+            int eulerScore = getEulerNumber(player.getOppenent()) - getEulerNumber(player.getCurrent());
+
+             // poids de chaque composante: voir EngineConfig (25/10/15/10 par defaut), reglables depuis l'arene
+            evaluation = (cpuConnectedPieces - adverseConnectedPieces) * config.getGroupWeight() +
+                          mobilityScore * config.getMobilityWeight() +
+                          centerControlScore * config.getCenterWeight() +
+                          convergenceScore * config.getConvergenceWeight() +
+                          eulerScore * config.getEulerWeight();
         }
         
         return evaluation;
@@ -338,14 +660,8 @@ public class Plateau {
      * @return Le score de mobilité du joueur.
      */
     private int calculateMobilityScore(char player) {
-        int mobilityScore = 0;
-        for (String key : mapPlateau.keySet()) {
-            if (mapPlateau.get(key) == player) {
-                List<String> movements = generateMovements(key, player);
-                mobilityScore += movements.size(); // Ajoute le nombre de mouvements disponibles pour chaque pion
-            }
-        }
-        return mobilityScore;
+        // nombre de mouvements disponibles pour tous les pions, sans garder les coups
+        return generateMovements(player, mobilityBuffer, 0);
     }
 
     /**
@@ -355,18 +671,11 @@ public class Plateau {
      *               calculé.
      * @return Le score de contrôle du centre du joueur.
      */
+    private static final long CENTER_MASK = 0x00003C3C3C3C0000L;
+
     private int calculateCenterControlScore(char player) {
-        int centerControlScore = 0;
-        for (String key : mapPlateau.keySet()) {
-            if (mapPlateau.get(key) == player) {
-                char col = key.charAt(0);
-                int row = Integer.parseInt(key.substring(1));
-                if ((col >= 'C' && col <= 'F') && (row >= 3 && row <= 6)) {
-                    centerControlScore += 1; // Ajoute une valeur pour chaque pion au centre du plateau
-                }
-            }
-        }
-        return centerControlScore;
+        // Une valeur pour chaque pion au centre du plateau (C3 a F6), compté au fur et a mesure par setPiece
+        return centerCounts[side(player)];
     }
 
     /**
@@ -376,338 +685,699 @@ public class Plateau {
      * @return Le score de convergence du joueur.
      */
     private int calculateConvergenceScore(char player) {
-        int convergenceScore = 0;
-        List<String> keys = new ArrayList<>(mapPlateau.keySet());
-
-        for (int i = 0; i < keys.size(); i++) {
-            String key1 = keys.get(i);
-            if (mapPlateau.get(key1) == player) {
-                for (int j = i + 1; j < keys.size(); j++) {
-                    String key2 = keys.get(j);
-                    if (mapPlateau.get(key2) == player) {
-                        int distance = calculateDistance(key1, key2); // Calculer la distance entre deux pions
-                        if (distance <= 2) {
-                            convergenceScore += 1; // Ajouter une valeur si deux pions sont proches l'un de l'autre
-                        }
-                    }
-                }
-            }
-        }
-
-        return convergenceScore;
+        // Une valeur pour chaque paire de pions a distance 2 ou moins, comptée au fur et a mesure par setPiece
+        return proximityPairs[side(player)];
     }
 
     /**
      * Calcule la distance entre deux positions sur le plateau.
      * 
-     * @param position1 La première position.
-     * @param position2 La deuxième position.
+     * @param square1 La première case (index du bit).
+     * @param square2 La deuxième case (index du bit).
      * @return La distance entre les deux positions.
      */
-    private int calculateDistance(String position1, String position2) {
-        char col1 = position1.charAt(0);
-        int row1 = Integer.parseInt(position1.substring(1));
-        char col2 = position2.charAt(0);
-        int row2 = Integer.parseInt(position2.substring(1));
-
-        int colDiff = Math.abs(col1 - col2);
-        int rowDiff = Math.abs(row1 - row2);
+    private static int calculateDistance(int square1, int square2) {
+        int colDiff = Math.abs((square1 & 7) - (square2 & 7));
+        int rowDiff = Math.abs((square1 >>> 3) - (square2 >>> 3));
 
         // La distance est le maximum de la différence de colonne et de la différence de
         // ligne
         return Math.max(colDiff, rowDiff);
     }
 
-    private  Set<String> examinePlateau(char player){
-
-            String startPosition = findStartPosition(player);
-            Set <String> allVisitedPositions = new HashSet<>();
-            Set<String> visitedPositions = new HashSet<>();
-            Set<String> longuestPositions = new HashSet<>();
-
-            dfs(startPosition, player, visitedPositions, longuestPositions, allVisitedPositions);
-
-            return longuestPositions;
-        }
-
-    private void dfs(String currentPosition, char player, Set<String> visitedPositions, Set<String> longuestPositions,  Set<String> allVisitedPositions){
+    public void miniMax(char player, Plateau plateau){
+        plateau.iterativeDeepening(DEFAULT_TIME_BUDGET_MS, MAX_DEPTH);
+    }
 
-            List<String> neighbors = getNeighbors(currentPosition, player);
-            String key = new String();
-            allVisitedPositions.add(currentPosition);
-            visitedPositions.add(currentPosition);
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
 
-            if(longuestPositions.size() < visitedPositions.size()){
-                longuestPositions.clear();
-                longuestPositions.addAll(visitedPositions);
-            }
+    public long getNodes() {
+        return statistics.nodes;
+    }
 
-            for(String neighbor : neighbors){
-                if(!visitedPositions.contains(neighbor) && !allVisitedPositions.contains(neighbor))
-                    dfs(neighbor, player, visitedPositions, longuestPositions, allVisitedPositions);
-            }
+    /**
+     * compteurs de la derniere recherche de ce plateau; a ne lire qu'une fois la recherche finie.
+     * */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
 
-            if(neighbors.size() == 0 || visitedPositionsContainsAllNeighboursFromLastPosition(visitedPositions, neighbors)){
-                key = nextStartPosition(visitedPositions, allVisitedPositions, player);
-                if(key != null){
-                    if(key.charAt(0) == '0'){
-                        key = key.substring(1);
-                        dfs(key, player, visitedPositions, longuestPositions, allVisitedPositions);
-                    }else if(key.charAt(0) == '1'){
-                        key = key.substring(1);
-                        Set<String> availablePositions = new HashSet<>();
-                        dfs(key, player, availablePositions, longuestPositions, allVisitedPositions);
-                    }
-                }
-            }       
-        }
+    /**
+     * demande a une recherche en cours (sur un autre thread) de s'arreter au prochain controle du temps.
+     * */
+    public void stopSearch() {
+        stopRequested = true;
+    }
 
-    private List<String> getNeighbors(String currentPosition, char player){
-            List<String> neighbors = new ArrayList<String>();
+    boolean isStopRequested() {
+        return stopRequested;
+    }
 
-            char col = currentPosition.charAt(0);
-            int row = Integer.parseInt(currentPosition.substring(1));
+    /**
+     * resultat d'une recherche faite hors de algoMinMax (voir MonteCarloSearch): le coup a jouer et la profondeur
+     * de la variante principale, lus ensuite comme ceux de l'approfondissement iteratif.
+     * */
+    void setSearchResult(int mouvement, int depth) {
+        moveToSend = mouvement;
+        completedDepth = depth;
+        statistics.completedDepth = depth;
+    }
 
-            for(int i = 0 ; i < 8 ; i++){
-                int neighborCol = col + dx[i];
-                int neighborRow = row + dy[i];
+    /**
+     * Recherche a profondeur 1, 2, 3... tant que le temps alloué n'est pas écoulé.
+     * moveToSend est le meilleur coup de la derniere iteration complete; une iteration interrompue est ignorée,
+     * mais son travail reste dans la table de transposition et sert a ordonner la suivante.
+     * Retourne le score de la derniere iteration complete.
+     * */
+    public int iterativeDeepening(long timeBudgetMillis, int maxDepth) {
+        stopRequested = false;
+        getTranspositionTable().newSearch();
+        return searchUntil(System.nanoTime() + timeBudgetMillis * 1_000_000, maxDepth, 0);
+    }
 
-                if(neighborCol >= 65 && neighborCol <= 72 && neighborRow >= 1 && neighborRow <= 8){
-                    String neighborPosition = String.valueOf((char)neighborCol) + neighborRow;
+    /**
+     * approfondissement iteratif sans limite de temps, jusqu'a maxDepth ou config.getNodeLimit() noeuds:
+     * le meme travail quelle que soit la machine (analyse de positions, voir BatchAnalyzer).
+     * */
+    public int searchToDepth(int maxDepth) {
+        stopRequested = false;
+        getTranspositionTable().newSearch();
+        return searchUntil(System.nanoTime() + UNLIMITED_TIME_NANOS, maxDepth, 0);
+    }
 
-                    if(mapPlateau.get(neighborPosition).equals(player)){
-                        neighbors.add(neighborPosition);
-                    }
-                } 
+    /**
+     * boucle d'approfondissement iteratif jusqu'a l'heure limite deadline (System.nanoTime) ou stopSearch.
+     * depthOffset permet aux threads auxiliaires de ParallelSearch de commencer une profondeur plus loin
+     * que le thread principal pour que les threads ne fassent pas tous le meme travail.
+     * */
+    int searchUntil(long deadline, int maxDepth, int depthOffset) {
+        long start = System.nanoTime();
+        this.deadline = deadline;
+        this.nodeLimit = config.getNodeLimit() > 0 ? config.getNodeLimit() : Long.MAX_VALUE;
+        searchAborted = false;
+        statistics.reset();
+        completedDepth = 0;
+        moveToSend = Move.NONE;
+
+        for (int[] killer : killers) {
+            killer[0] = Move.NONE;
+            killer[1] = Move.NONE;
+        }
+        ageHistory();
+
+        int score = 0;
+        for (int depth = 1 + depthOffset; depth <= maxDepth; depth++) {
+            rootBestMove = Move.NONE;
+            long iterationStart = System.nanoTime();
+            long iterationStartNodes = statistics.nodes;
+            int iterationScore = searchRoot(depth, score, depth > 1 + depthOffset);
+            if (searchAborted) {
+                break;
+            }
+            score = iterationScore;
+            moveToSend = rootBestMove;
+            completedDepth = depth;
+            statistics.completedDepth = depth;
+            statistics.iterationNanos[depth] = System.nanoTime() - iterationStart;
+            statistics.iterationNodes[depth] = statistics.nodes - iterationStartNodes;
+
+            // partie gagnée ou perdue: chercher plus loin ne changera rien
+            if (isWinScore(score)) {
+                break;
+            }
+            // l'iteration suivante coute plusieurs fois la precedente: inutile de la commencer sans le temps de la finir
+            if (System.nanoTime() - start > (deadline - start) / 2) {
+                break;
             }
-
-            return neighbors;
         }
 
-    private String findStartPosition(char player){
+        // meme pas la profondeur 1 dans le temps: on prend le meilleur coup trouvé jusque la
+        if (moveToSend == Move.NONE) {
+            moveToSend = rootBestMove != Move.NONE ? rootBestMove : firstMovement(playerMax);
+        }
+        return score;
+    }
 
-            Set<String> keySet = mapPlateau.keySet();
-            List<String> listKeys = new ArrayList<String>(keySet);
-            String keyToStart = "";
-            int i = 0;
+    /**
+     * fenetre d'aspiration: la racine est cherchée dans une fenetre etroite autour du score de l'iteration precedente,
+     * qui coupe beaucoup plus que la fenetre complete. Si le score sort de la fenetre, elle est elargie du coté
+     * qui a echoué (deux fois plus a chaque echec) et la profondeur est cherchée de nouveau.
+     * */
+    private int searchRoot(int depth, int previousScore, boolean hasPrevious) {
+        int window = config.getAspirationWindow();
+        if (window <= 0 || !hasPrevious || isWinScore(previousScore)) {
+            return algoMinMax(playerMax, depth, 0, -INFINITY, INFINITY);
+        }
 
-            while(keyToStart.equals("")){
-                if(mapPlateau.get(listKeys.get(i)).equals(player))
-                    keyToStart = listKeys.get(i);
-                i++; 
+        int alpha = previousScore - window;
+        int beta = previousScore + window;
+        while (true) {
+            int score = algoMinMax(playerMax, depth, 0, alpha, beta);
+            if (searchAborted) {
+                return score;
+            }
+            if (score <= alpha && alpha > -INFINITY) {
+                window *= 2;
+                alpha = Math.max(-INFINITY, score - window);
+            } else if (score >= beta && beta < INFINITY) {
+                window *= 2;
+                beta = Math.min(INFINITY, score + window);
+            } else {
+                return score;
             }
-            return keyToStart;
+            // le coup trouvé hors de la fenetre ne vaut rien apres un echec vers le bas
+            rootBestMove = Move.NONE;
+            statistics.aspirationResearches++;
         }
+    }
 
-    private String nextStartPosition(Set<String> visitedPositions, Set<String> allVisitedPositions, char player){
-        Set<String> keySet = mapPlateau.keySet();
-        List<String> listKeys = new ArrayList<String>(keySet);
+    public static boolean isWinScore(int score) {
+        return Math.abs(score) >= WIN_THRESHOLD;
+    }
 
-        String keyNeighborsToVisitedPosition = new String();
-        String keyNextStartPosition = new String();
+    /**
+     * evaluation du point de vue de playerMax a ply demi-coups de la racine: une fin de partie prend sa distance.
+     * */
+    private int evaluateAt(int ply) {
+        int score = evaluate(playerMax);
+        if (score >= WIN_THRESHOLD) {
+            return WIN_SCORE - ply;
+        }
+        if (score <= -WIN_THRESHOLD) {
+            return -(WIN_SCORE - ply);
+        }
+        return score;
+    }
 
-        for(String key : listKeys){
-            if(mapPlateau.get(key).equals(player)){
-                if(!visitedPositions.contains(key) && isKeyNeighborToVisitedPosition(key, visitedPositions, player)){
-                    keyNeighborsToVisitedPosition = key;
-                }else if(!allVisitedPositions.contains(key)){
-                    keyNextStartPosition = key;
-                }
-            }
+    /**
+     * score de fin de partie si le coup qui vient d'etre joué (par l'adversaire de joueur) a fini la partie, 0 sinon
+     * (voir winnerAfter).
+     * */
+    private int terminalScore(Player joueur, int ply) {
+        char winner = winnerAfter(joueur.getOppenent());
+        if (winner == 0) {
+            return 0;
         }
-        if(!keyNeighborsToVisitedPosition.equals("")){
-            return "0" + keyNeighborsToVisitedPosition;
-        }else if(!keyNextStartPosition.equals("")){
-            return "1" + keyNextStartPosition;
-        }else{
-            return null;
+        return winner == playerMax.getCurrent() ? WIN_SCORE - ply : -(WIN_SCORE - ply);
+    }
+
+    /**
+     * la table range la distance a la victoire depuis la position elle-meme, pas depuis la racine:
+     * la meme position peut etre atteinte a un autre ply.
+     * */
+    private static int scoreToTable(int score, int ply) {
+        if (score >= WIN_THRESHOLD) {
+            return score + ply;
+        }
+        if (score <= -WIN_THRESHOLD) {
+            return score - ply;
         }
+        return score;
     }
 
-    private boolean visitedPositionsContainsAllNeighboursFromLastPosition(Set<String> visitedPositions, List<String> neighbours) {
-        for(String neighbour : neighbours){
-            if(!visitedPositions.contains(neighbour))
-                return false;
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= WIN_THRESHOLD) {
+            return score - ply;
         }
-        return true;
+        if (score <= -WIN_THRESHOLD) {
+            return score + ply;
+        }
+        return score;
     }
 
-    private boolean isKeyNeighborToVisitedPosition(String key, Set<String> visitedPositions, char player){
-        
-        List<String> voisins = getNeighbors(key, player);
-        for(String position : visitedPositions){
-            if(voisins.contains(position)){
-                return true;
+    private int firstMovement(Player joueur) {
+        return getMovements(joueur, Move.NONE, 0) == 0 ? Move.NONE : moveBuffers[0][0];
+    }
+
+    /**
+     * alpha-beta avec table de transposition, sur ce plateau: play/undoPlay modifient le plateau et le remettent
+     * dans son etat avant de retourner. Chaque thread de recherche doit donc avoir sa propre copie (voir ParallelSearch).
+     * ply est la distance a la racine (0 a la racine), profondeur ce qu'il reste a chercher.
+     * La table donne un coup a essayer en premier et, si l'entrée est assez profonde, une borne
+     * qui peut couper la recherche sans regarder les coups (sauf a la racine, ou il faut choisir le coup a jouer).
+     *
+     * PVS (si config.isPvs()): le premier coup, normalement le meilleur grace a l'ordre des coups, est cherché
+     * avec la fenetre (alpha, beta); les suivants avec une fenetre nulle qui sert seulement a prouver qu'ils
+     * ne font pas mieux. Si la preuve echoue, le coup est cherché de nouveau avec la fenetre complete.
+     * Le coup nul, les reductions des coups tardifs et la futilité (voir NULL_MOVE_MIN_PIECES) s'appliquent
+     * seulement aux noeuds de fenetre nulle, hors de la variante principale.
+     * */
+    public int algoMinMax(Player joueur, int profondeur, int ply, int alpha, int beta) {
+        if (++statistics.nodes % TIME_CHECK_INTERVAL == 0 && (stopRequested || System.nanoTime() > deadline || statistics.nodes >= nodeLimit)) {
+            searchAborted = true;
+        }
+        if (searchAborted) {
+            return 0;
+        }
+        if (ply > 0) {
+            int fin = terminalScore(joueur, ply);
+            if (fin != 0) {
+                return fin;
             }
         }
-        return false;
-    } 
-
-    public void miniMax(char player, Plateau plateau){
+        if (profondeur <= 0){
+            return config.isQuiescence() ? quiescence(joueur, ply, alpha, beta, 0) : evaluateAt(ply);
+        }
 
-        int alpha = Integer.MIN_VALUE;
-        int beta = Integer.MAX_VALUE;
+        TranspositionTable table = getTranspositionTable();
+        long key = zobristKey ^ Zobrist.sideToMove(joueur.getCurrent());
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        statistics.tableProbes++;
+        if (entry != 0) {
+            statistics.tableHits++;
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= profondeur) {
+                int score = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT) {
+                    statistics.tableCutoffs++;
+                    return score;
+                } else if (bound == TranspositionTable.LOWER_BOUND) {
+                    alpha = Math.max(alpha, score);
+                } else {
+                    beta = Math.min(beta, score);
+                }
+                if (beta <= alpha) {
+                    statistics.tableCutoffs++;
+                    return score;
+                }
+            }
+        }
 
-        
-        algoMinMax(plateau, playerMax, 3,alpha, beta);
-    }
+        // hors de la variante principale (fenetre nulle), l'evaluation statique sert au coup nul et a la futilité
+        boolean pvNode = beta - alpha > 1;
+        int staticEval = 0;
+        if (!pvNode && ply > 0 && ((config.getNullMoveReduction() > 0 && profondeur > config.getNullMoveReduction())
+                || (config.getFutilityMargin() > 0 && profondeur == 1))) {
+            staticEval = evaluateAt(ply);
+        }
+        if (!pvNode && canNullMove(joueur, profondeur, ply, alpha, beta, staticEval)) {
+            int score = nullMove(joueur, profondeur, ply, alpha, beta);
+            if (searchAborted) {
+                return 0;
+            }
+            if (joueur == playerMax ? score >= beta : score <= alpha) {
+                statistics.nullMoveCutoffs++;
+                return score;
+            }
+        }
+        boolean futility = !pvNode && ply > 0 && profondeur == 1 && config.getFutilityMargin() > 0
+                && !isWinScore(alpha) && !isWinScore(beta);
 
-    public int algoMinMax(Plateau plateau, Player joueur, int profondeur, int alpha, int beta) {
-        if (profondeur == 0){
-            return plateau.evaluate(playerMax);
+        int[] mouvements = moveBuffers[ply];
+        int count = getMovements(joueur, hashMove, ply);
+        if (count == 0) {
+            return evaluateAt(ply);
         }
-    
-        List<String> keys = getKeys(joueur, plateau);
+        statistics.expandedNodes++;
+        int tried = 0;
+        int bestMouvement = Move.NONE;
+        int alphaOrig = alpha;
+        int betaOrig = beta;
     
         if (joueur == playerMax) {
-            int bestMove = Integer.MIN_VALUE;
-            for (String key : keys) {
-                List<String> mouvements = generateMovements(key, joueur.getCurrent());
-                for (String mouvement : mouvements) {
-                    Plateau board = plateau;
-                    //Pour eviter les mauvais coups: je conserve la valeur de la case d'arriver dans previousCoup
-                    char previousCoup;
-                    String tab[] = mouvement.split("-");
-                    tab[0] = tab[0].substring(0, 2);
-                    tab[1]= tab[1].substring(0, 2);
-                    previousCoup=this.mapPlateau.get(tab[1]);
-                    board.play(mouvement, joueur);
-
-                    if(board.evaluate(joueur)==Integer.MAX_VALUE && profondeur == 3){
-                        bestMove = Integer.MAX_VALUE;
-                        moveToSend = mouvement;
-                        return Integer.MAX_VALUE;
-                    }
-                    
-                    int move = algoMinMax(board, playerMin, profondeur - 1, alpha, beta);
-                    board.undoPlay(mouvement, joueur,previousCoup);
-
-                    if (move > bestMove) {
-                        bestMove = move;
-                        if (profondeur == 3) {
-                            moveToSend = mouvement;
-                            if(move == Integer.MAX_VALUE)
-                                return bestMove;
-                        }
-                    }
-                    alpha = Math.max(alpha, move);
-                    if (beta <= alpha) {
-                        return bestMove;
+            int bestMove = -INFINITY;
+            int futilityScore = staticEval + config.getFutilityMargin();
+            for (int i = 0; i < count; i++) {
+                int mouvement = mouvements[i];
+                boolean quiet = tried > 0 && isQuiet(mouvement, hashMove, ply);
+                play(mouvement, joueur);
+
+                if(ply == 0 && terminalScore(playerMin, 1) > 0){
+                    undoPlay(mouvement, joueur);
+                    rootBestMove = mouvement;
+                    return WIN_SCORE - 1;
+                }
+
+                if (futility && quiet && futilityScore <= alpha && !isConnected(joueur.getCurrent())) {
+                    undoPlay(mouvement, joueur);
+                    statistics.futilityPrunes++;
+                    bestMove = Math.max(bestMove, futilityScore);
+                    continue;
+                }
+
+                int reduction = quiet ? lateMoveReduction(profondeur, ply, tried) : 0;
+                boolean nullWindow = tried > 0 && config.isPvs();
+                int move = algoMinMax(playerMin, profondeur - 1 - reduction, ply + 1, alpha, nullWindow ? alpha + 1 : beta);
+                if (reduction > 0 && move > alpha && !searchAborted) {
+                    statistics.lateMoveResearches++;
+                    move = algoMinMax(playerMin, profondeur - 1, ply + 1, alpha, nullWindow ? alpha + 1 : beta);
+                }
+                if (nullWindow && move > alpha && move < beta && !searchAborted) {
+                    statistics.pvsResearches++;
+                    move = algoMinMax(playerMin, profondeur - 1, ply + 1, alpha, beta);
+                }
+                undoPlay(mouvement, joueur);
+                if (searchAborted) {
+                    return 0;
+                }
+
+                if (move > bestMove || bestMouvement == Move.NONE) {
+                    bestMove = move;
+                    bestMouvement = mouvement;
+                    if (ply == 0) {
+                        rootBestMove = mouvement;
+                        if(move >= WIN_THRESHOLD)
+                            break;
                     }
                 }
+                tried++;
+                if (bestMove >= beta) {
+                    recordCutoff(tried);
+                    updateCutoffStatistics(mouvement, profondeur, ply);
+                    break;
+                }
+                alpha = Math.max(alpha, move);
             }
+            int bound = bestMove >= beta ? TranspositionTable.LOWER_BOUND
+                    : bestMove <= alphaOrig ? TranspositionTable.UPPER_BOUND : TranspositionTable.EXACT;
+            table.store(key, profondeur, bound, scoreToTable(bestMove, ply), bestMouvement);
             return bestMove;
         } else {
-            int worstMove = Integer.MAX_VALUE;
-            for (String key : keys) {
-                List<String> mouvements = generateMovements(key, joueur.getCurrent());
-                for (String mouvement : mouvements) {
-                    Plateau board = plateau;
-                    //Pour eviter les mauvais coups: je conserve la valeur de la case d'arriver dans previousCoup
-                    char previousCoup;
-                    String tab[] = mouvement.split("-");
-                    tab[0] = tab[0].substring(0, 2);
-                    tab[1]= tab[1].substring(0, 2);
-                    previousCoup=this.mapPlateau.get(tab[1]);
-                    //Fin
-
-                    board.play(mouvement, joueur);
-                    int move = algoMinMax(board, playerMax, profondeur - 1, alpha, beta);
-                    // au moment de undo je passe ce qu'il y'avait dans la case d'arrivé du play
-                    board.undoPlay(mouvement, joueur,previousCoup);
-                    if (move < worstMove) {
-                        worstMove = move;
-                    }
-                    beta = Math.min(beta, move);
-                    if (beta <= alpha) {
-                        return worstMove;
-                    }
+            int worstMove = INFINITY;
+            int futilityScore = staticEval - config.getFutilityMargin();
+            for (int i = 0; i < count; i++) {
+                int mouvement = mouvements[i];
+                boolean quiet = tried > 0 && isQuiet(mouvement, hashMove, ply);
+                play(mouvement, joueur);
+
+                if (futility && quiet && futilityScore >= beta && !isConnected(joueur.getCurrent())) {
+                    undoPlay(mouvement, joueur);
+                    statistics.futilityPrunes++;
+                    worstMove = Math.min(worstMove, futilityScore);
+                    continue;
+                }
+
+                int reduction = quiet ? lateMoveReduction(profondeur, ply, tried) : 0;
+                boolean nullWindow = tried > 0 && config.isPvs();
+                int move = algoMinMax(playerMax, profondeur - 1 - reduction, ply + 1, nullWindow ? beta - 1 : alpha, beta);
+                if (reduction > 0 && move < beta && !searchAborted) {
+                    statistics.lateMoveResearches++;
+                    move = algoMinMax(playerMax, profondeur - 1, ply + 1, nullWindow ? beta - 1 : alpha, beta);
+                }
+                if (nullWindow && move < beta && move > alpha && !searchAborted) {
+                    statistics.pvsResearches++;
+                    move = algoMinMax(playerMax, profondeur - 1, ply + 1, alpha, beta);
+                }
+                // au moment de undo le coup indique s'il faut remettre le pion adverse dans la case d'arrivé
+                undoPlay(mouvement, joueur);
+                if (searchAborted) {
+                    return 0;
                 }
+                if (move < worstMove || bestMouvement == Move.NONE) {
+                    worstMove = move;
+                    bestMouvement = mouvement;
+                }
+                tried++;
+                if (worstMove <= alpha) {
+                    recordCutoff(tried);
+                    updateCutoffStatistics(mouvement, profondeur, ply);
+                    break;
+                }
+                beta = Math.min(beta, move);
             }
+            int bound = worstMove <= alpha ? TranspositionTable.UPPER_BOUND
+                    : worstMove >= betaOrig ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+            table.store(key, profondeur, bound, scoreToTable(worstMove, ply), bestMouvement);
             return worstMove;
         }
     }
 
-    private List<String> getKeys(Player player, Plateau plateau){
-        List<String> keysPlateau = new ArrayList<String>(plateau.getMapPlateau().keySet());
-        List<String> keysFiltered = new ArrayList<String>();
-
-        for(String key : keysPlateau){
-            if(mapPlateau.get(key).equals(player.getCurrent()))
-                keysFiltered.add(key);
+    /**
+     * conditions du coup nul (voir NULL_MOVE_MIN_PIECES): il doit rester au moins un pli apres la reduction.
+     * */
+    private boolean canNullMove(Player joueur, int profondeur, int ply, int alpha, int beta, int staticEval) {
+        int reduction = config.getNullMoveReduction();
+        if (reduction == 0 || ply == 0 || profondeur <= reduction || nullMoves[ply - 1]
+                || isWinScore(alpha) || isWinScore(beta)
+                || getPieceCount(joueur.getCurrent()) <= NULL_MOVE_MIN_PIECES) {
+            return false;
         }
+        return joueur == playerMax ? staticEval >= beta : staticEval <= alpha;
+    }
 
-        return keysFiltered;
+    /**
+     * joueur passe son tour: l'adversaire joue a sa place, sur le meme plateau, avec une fenetre nulle sur la borne
+     * a prouver. Rien n'est joué, la cle de la table change seulement par le joueur au trait.
+     * */
+    private int nullMove(Player joueur, int profondeur, int ply, int alpha, int beta) {
+        int depth = profondeur - 1 - config.getNullMoveReduction();
+        nullMoves[ply] = true;
+        int score = joueur == playerMax
+                ? algoMinMax(playerMin, depth, ply + 1, beta - 1, beta)
+                : algoMinMax(playerMax, depth, ply + 1, alpha, alpha + 1);
+        nullMoves[ply] = false;
+        return score;
     }
 
     /**
-     * impression du plateau a partir de la LinkedHashmap mapPlateau, apres 8 impression sur la meme lettres, il va a la lettres
-     * ajout de l'Espace apres chaque impression pour avoir un tableau plus visible
-     * les points (.) veulent dire que la case est vide
+     * coup calme: ni coup de la table, ni prise, ni killer du ply. Seuls ceux-la sont reduits ou elagués.
      * */
-    public void printPlateau(){
-        List<String> keys = new ArrayList<String>(mapPlateau.keySet());
-        int i = 1;
-        for(String key : keys){
-            char value = mapPlateau.get(key);
-            System.out.print(value + "   ");
-            if(i % 8 == 0){
-                System.out.println();
-            }
-            i++;
+    private boolean isQuiet(int mouvement, int hashMove, int ply) {
+        return mouvement != hashMove && !Move.isCapture(mouvement)
+                && mouvement != killers[ply][0] && mouvement != killers[ply][1];
+    }
+
+    /**
+     * plis retirés a un coup calme, le tried-ieme essayé a ce noeud (voir LMR_DEEP_MOVES).
+     * */
+    private int lateMoveReduction(int profondeur, int ply, int tried) {
+        int threshold = config.getLateMoveThreshold();
+        if (threshold == 0 || ply == 0 || profondeur < LMR_MIN_DEPTH || tried < threshold) {
+            return 0;
         }
-        System.out.println("-------------------------");
+        statistics.lateMoveReductions++;
+        return tried >= LMR_DEEP_MOVES && profondeur > LMR_MIN_DEPTH ? 2 : 1;
     }
+
     /**
-     * recois en entré une chaine ce caractere ex D6-D8
-     * split et recupere ce qui se trouve dans D6 et le place dans D8 et efface ce qui etait dans D6 et remplace par le vide ou le point(.)
-     * plus tard il faut verifier s'il a le droit de jouer ce coup ( utile lors de la competition a la fin du labo)
+     * quiescence: le score statique (stand pat) sert de borne, puis on essaie seulement les coups tactiques.
+     * Comme algoMinMax, les scores sont du point de vue de playerMax et joueur est celui qui a le trait.
      * */
-    public void play(String mouvement, Player joueur) {
-        String tab[] = mouvement.split("-");
-        tab[0] = tab[0].substring(0, 2);
-        tab[1]= tab[1].substring(0, 2);
+    private int quiescence(Player joueur, int ply, int alpha, int beta, int qdepth) {
+        if (++statistics.nodes % TIME_CHECK_INTERVAL == 0 && (stopRequested || System.nanoTime() > deadline || statistics.nodes >= nodeLimit)) {
+            searchAborted = true;
+        }
+        if (searchAborted) {
+            return 0;
+        }
+        statistics.quiescenceNodes++;
+        // a qdepth 0 algoMinMax vient de faire la verification
+        if (qdepth > 0) {
+            int fin = terminalScore(joueur, ply);
+            if (fin != 0) {
+                return fin;
+            }
+        }
+
+        int standPat = evaluateAt(ply);
+        if (qdepth >= MAX_QUIESCENCE_DEPTH) {
+            return standPat;
+        }
 
-        //Garder en memoire les endroits ou on enleve un pion opposé avec le dernier mouv effectuées (pour la récursion dans algominmax)
-        if(joueur == playerMax){
-            if(this.mapPlateau.get(tab[1]).equals(joueur.getOppenent())){
-                previousOpponentPieces.add(tab[1]);
+        boolean maximizing = joueur == playerMax;
+        Player adversaire = maximizing ? playerMin : playerMax;
+        if (maximizing) {
+            if (standPat >= beta) {
+                return standPat;
             }
-        }else if(joueur == playerMin){
-            if(this.mapPlateau.get(tab[1]).equals(joueur.getOppenent())){
-                previousPlayerPieces.add(tab[1]);
+            alpha = Math.max(alpha, standPat);
+        } else {
+            if (standPat <= alpha) {
+                return standPat;
             }
+            beta = Math.min(beta, standPat);
         }
+        // meme le meilleur coup tactique ne peut pas ramener le score dans la fenetre, sauf s'il gagne
+        boolean deltaPruning = maximizing ? standPat + QUIESCENCE_DELTA <= alpha : standPat - QUIESCENCE_DELTA >= beta;
+
+        char current = joueur.getCurrent();
+        long own = getPieces(current);
+        int ownGroups = Connectivity.componentCount(own);
+        int best = standPat;
+
+        int[] mouvements = moveBuffers[ply];
+        int count = getTacticalMovements(joueur, own, qdepth < QUIESCENCE_CONNECTION_DEPTH, ply);
+        for (int i = 0; i < count; i++) {
+            int mouvement = mouvements[i];
+            boolean capture = Move.isCapture(mouvement);
+            play(mouvement, joueur);
+            boolean tactical = capture || Connectivity.componentCount(getPieces(current)) < ownGroups;
+            if (!tactical) {
+                undoPlay(mouvement, joueur);
+                continue;
+            }
+            if (deltaPruning && !isConnected(current)) {
+                undoPlay(mouvement, joueur);
+                continue;
+            }
+
+            int score = quiescence(adversaire, ply + 1, alpha, beta, qdepth + 1);
+            undoPlay(mouvement, joueur);
+            if (searchAborted) {
+                return 0;
+            }
 
-        this.mapPlateau.put(tab[1].trim(), this.mapPlateau.get(tab[0].trim()));
-        this.mapPlateau.put(tab[0], '.');
+            if (maximizing) {
+                best = Math.max(best, score);
+                if (best >= beta) {
+                    return best;
+                }
+                alpha = Math.max(alpha, best);
+            } else {
+                best = Math.min(best, score);
+                if (best <= alpha) {
+                    return best;
+                }
+                beta = Math.min(beta, best);
+            }
+        }
+        return best;
     }
 
-    public void undoPlay(String mouvement, Player player,char previousCoup){
-        String tab[] = mouvement.split("-");
-        this.mapPlateau.put(tab[0].trim(), this.mapPlateau.get(tab[1].trim()));
+    /**
+     * candidats de la quiescence: les prises en premier, puis les coups calmes dont la case d'arrivée touche
+     * un autre de nos pions (seuls ceux-la peuvent relier deux groupes). quiescence confirme ensuite en comptant les groupes.
+     * Les coups sont rangés dans moveBuffers[ply], retourne leur nombre.
+     * */
+    private int getTacticalMovements(Player joueur, long own, boolean withConnections, int ply) {
+        int[] mouvements = moveBuffers[ply];
+        // les coups qui relient attendent dans le tampon des scores, inutilisé par la quiescence
+        int[] connections = scoreBuffers[ply];
+        int generated = generateMovements(joueur.getCurrent(), mouvements, 0);
+        int captures = 0;
+        int connected = 0;
+        for (int i = 0; i < generated; i++) {
+            int mouvement = mouvements[i];
+            if (Move.isCapture(mouvement)) {
+                mouvements[captures++] = mouvement;
+            } else if (withConnections
+                    && (Connectivity.dilate(1L << Move.to(mouvement)) & own & ~(1L << Move.from(mouvement))) != 0) {
+                connections[connected++] = mouvement;
+            }
+        }
+        System.arraycopy(connections, 0, mouvements, captures, connected);
+        return captures + connected;
+    }
 
-        if(player == playerMax){
-            /*if(previousOpponentPieces.contains(tab[1])){
-                previousOpponentPieces.remove(tab[1]);
-                this.mapPlateau.put(tab[1], player.getOppenent());
-            }else{
+    /**
+     * range tous les coups du joueur dans moveBuffers[ply] et retourne leur nombre. Ils sont triés pour que les
+     * coups les plus susceptibles de couper passent en premier: coup de la table de transposition, prises,
+     * killers du ply puis coups calmes selon l'historique.
+     * */
+    private int getMovements(Player joueur, int hashMove, int ply){
+        int[] mouvements = moveBuffers[ply];
+        int[] scores = scoreBuffers[ply];
+        int count = generateMovements(joueur.getCurrent(), mouvements, 0);
+        for (int i = 0; i < count; i++) {
+            int mouvement = mouvements[i];
+            int score;
+            if (mouvement == hashMove) {
+                score = HASH_MOVE_SCORE;
+            } else if (Move.isCapture(mouvement)) {
+                score = CAPTURE_SCORE;
+            } else if (mouvement == killers[ply][0]) {
+                score = KILLER_SCORE + 1;
+            } else if (mouvement == killers[ply][1]) {
+                score = KILLER_SCORE;
+            } else {
+                score = history[Move.from(mouvement) * 64 + Move.to(mouvement)];
+            }
 
-            }*/
+            // tri par insertion, decroissant: il y a rarement plus d'une centaine de coups
+            int j = i;
+            while (j > 0 && scores[j - 1] < score) {
+                mouvements[j] = mouvements[j - 1];
+                scores[j] = scores[j - 1];
+                j--;
+            }
+            mouvements[j] = mouvement;
+            scores[j] = score;
+        }
+        return count;
+    }
 
-            this.mapPlateau.put(tab[1], previousCoup);
-        }else if(player == playerMin){
-            /*if(previousPlayerPieces.contains(tab[1])){
-                previousPlayerPieces.remove(tab[1]);
-                this.mapPlateau.put(tab[1], player.getOppenent());
-            }else{
+    private void recordCutoff(int tried) {
+        statistics.cutoffs++;
+        if (tried == 1) {
+            statistics.firstMoveCutoffs++;
+        }
+    }
 
-            }*/
+    /**
+     * un coup calme a causé une coupure: il devient killer de ce ply et gagne profondeur² dans l'historique.
+     * les prises sont deja essayées en premier, inutile de les compter.
+     * */
+    private void updateCutoffStatistics(int mouvement, int profondeur, int ply) {
+        if (Move.isCapture(mouvement)) {
+            return;
+        }
+        if (killers[ply][0] != mouvement) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = mouvement;
+        }
+        int index = Move.from(mouvement) * 64 + Move.to(mouvement);
+        history[index] += profondeur * profondeur;
+        if (history[index] > HISTORY_MAX) {
+            ageHistory();
+        }
+    }
 
-            this.mapPlateau.put(tab[1], previousCoup);
+    /**
+     * divise l'historique par deux: les coupures anciennes comptent moins que les recentes.
+     * */
+    private void ageHistory() {
+        for (int i = 0; i < history.length; i++) {
+            history[i] /= 2;
         }
     }
 
+    /**
+     * impression du plateau a partir des bitboards, ligne 8 en haut et ligne 1 en bas, de A a H.
+     * ajout de l'Espace apres chaque impression pour avoir un tableau plus visible
+     * les points (.) veulent dire que la case est vide
+     * */
+    public void printPlateau(){
+        for(int row = 8; row >= 1; row--){
+            for(int col = 0; col < 8; col++){
+                System.out.print(getPiece(row, col) + "   ");
+            }
+            System.out.println();
+        }
+        System.out.println("-------------------------");
+    }
+    /**
+     * recois en entré une chaine ce caractere ex D6-D8 (format du serveur) et retourne le coup encodé (voir Move).
+     * le drapeau de prise est calculé a partir du plateau actuel, il faut donc appeler toMove avant de jouer le coup.
+     * */
+    public int toMove(String mouvement) {
+        String tab[] = mouvement.split("-");
+        int from = toSquare(tab[0].trim());
+        int to = toSquare(tab[1].trim());
+        char piece = getPiece(tab[0].trim());
+        char target = getPiece(tab[1].trim());
+        return Move.encode(from, to, target != '.' && target != piece);
+    }
+
+    /**
+     * deplace le pion du joueur de la case de depart vers la case d'arrivée et efface la case de depart (point .)
+     * plus tard il faut verifier s'il a le droit de jouer ce coup ( utile lors de la competition a la fin du labo)
+     * */
+    public void play(int mouvement, Player joueur) {
+        // le pion pris (s'il y en a un) est ecrasé: undoPlay le remet grace au drapeau de prise du coup
+        setPiece(Move.to(mouvement), joueur.getCurrent());
+        setPiece(Move.from(mouvement), '.');
+    }
+
+    public void undoPlay(int mouvement, Player joueur){
+        // on remet le pion a son depart et ce qu'il y'avait dans la case d'arrivé avant le play
+        setPiece(Move.from(mouvement), joueur.getCurrent());
+        setPiece(Move.to(mouvement), Move.isCapture(mouvement) ? joueur.getOppenent() : '.');
+    }
+
     public void setPlayers(char i){
         playerMax = new Player(i);
         if(i == '1')
@@ -0,0 +1,138 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reflexion pendant le temps de l'adversaire ("ponder").
+ *
+ * Apres avoir joué notre coup, on devine la reponse de l'adversaire (le coup que la table de transposition
+ * donne pour lui dans la position actuelle), on la joue sur une copie du plateau et on cherche notre reponse
+ * en arriere-plan, sans limite de temps, jusqu'a ce que le vrai coup arrive.
+ *
+ * Quand le coup arrive, stop arrete la recherche dans tous les cas. Si on avait deviné juste (ponder hit),
+ * la table de transposition partagée est pleine de la position a jouer et la recherche normale retrouve
+ * en quelques millisecondes la profondeur atteinte; getMove reste utilisable si elle va moins loin.
+ * Sinon la recherche est simplement jetée, mais ce qu'elle a rangé dans la table reste.
+ *
+ * Chaque reflexion cherche sur une copie neuve du plateau: le stopSearch d'une reflexion ne peut pas arreter
+ * la recherche suivante.
+ * */
+public class Ponder {
+
+    /** assez long pour ne jamais finir avant le coup de l'adversaire */
+    private static final long PONDER_BUDGET_MS = 60L * 60 * 1000;
+
+    private final ParallelSearch recherche;
+    private final ExecutorService thread;
+    private Plateau ponderPlateau;
+    private Future<Integer> result;
+    private int predictedMove = Move.NONE;
+    private long startNanos;
+    private long elapsedMillis;
+
+    public Ponder(ParallelSearch recherche) {
+        this.recherche = recherche;
+        this.thread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread ponder = new Thread(runnable, "ponder");
+            ponder.setDaemon(true);
+            return ponder;
+        });
+    }
+
+    /**
+     * commence a reflechir: plateau est la position apres notre coup, plateau.playerMin a le trait.
+     * Retourne false (sans rien lancer) si on ne sait pas deviner la reponse ou si la partie est finie.
+     * */
+    public boolean start(Plateau plateau) {
+        stop(Move.NONE);
+        if (plateau.isConnected(plateau.playerMax.getCurrent()) || plateau.isConnected(plateau.playerMin.getCurrent())) {
+            return false;
+        }
+        int mouvement = predict(plateau);
+        if (mouvement == Move.NONE) {
+            return false;
+        }
+
+        Plateau copy = plateau.copyForHelper();
+        copy.play(mouvement, copy.playerMin);
+
+        predictedMove = mouvement;
+        ponderPlateau = copy;
+        startNanos = System.nanoTime();
+        result = thread.submit(() -> recherche.search(copy, PONDER_BUDGET_MS, Plateau.MAX_DEPTH));
+        return true;
+    }
+
+    /**
+     * arrete la reflexion en cours et attend qu'elle soit finie (le ParallelSearch est de nouveau libre).
+     * opponentMove est le coup reellement joué; retourne vrai si c'etait le coup deviné
+     * et que la reflexion a terminé au moins une iteration.
+     * */
+    public boolean stop(int opponentMove) {
+        if (result == null) {
+            return false;
+        }
+        ponderPlateau.stopSearch();
+        waitFor(result);
+        elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        result = null;
+        return opponentMove != Move.NONE && opponentMove == predictedMove && ponderPlateau.getCompletedDepth() > 0;
+    }
+
+    /**
+     * coup deviné pour l'adversaire par le dernier start, Move.NONE s'il n'y en a pas eu.
+     * */
+    public int getPredictedMove() {
+        return predictedMove;
+    }
+
+    /**
+     * meilleur coup trouvé par la derniere reflexion (valable apres un stop qui a retourné vrai).
+     * */
+    public int getMove() {
+        return ponderPlateau.moveToSend;
+    }
+
+    public int getCompletedDepth() {
+        return ponderPlateau.getCompletedDepth();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void shutdown() {
+        stop(Move.NONE);
+        thread.shutdownNow();
+    }
+
+    /**
+     * la reponse attendue de l'adversaire: le coup rangé dans la table pour la position ou il a le trait,
+     * s'il est legal (l'entrée peut venir d'une autre position de meme index).
+     * */
+    private static int predict(Plateau plateau) {
+        char adversaire = plateau.playerMin.getCurrent();
+        long entry = plateau.getTranspositionTable().probe(plateau.getZobristKey() ^ Zobrist.sideToMove(adversaire));
+        int mouvement = entry == 0 ? Move.NONE : TranspositionTable.move(entry);
+        if (mouvement == Move.NONE) {
+            return Move.NONE;
+        }
+        for (int legal : plateau.generateMovements(Move.from(mouvement), adversaire)) {
+            if (legal == mouvement) {
+                return mouvement;
+            }
+        }
+        return Move.NONE;
+    }
+
+    private static void waitFor(Future<Integer> result) {
+        try {
+            result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
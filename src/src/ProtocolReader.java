@@ -0,0 +1,77 @@
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Decoupe le flux d'octets du serveur en ServerMessage complets.
+ *
+ * TCP ne garde pas les limites des messages: un plateau peut arriver en plusieurs morceaux, ou une commande
+ * coller a la suivante. Le lecteur est donc une petite machine a etats alimentée avec ce qui a été lu,
+ * quelle que soit la taille des morceaux: il attend une commande, puis le nombre de caracteres significatifs
+ * que cette commande annonce (64 chiffres pour un plateau, 4 lettres/chiffres pour un coup). Les espaces,
+ * tirets et autres separateurs que le serveur met entre les caracteres sont ignorés.
+ *
+ * Aucune entrée/sortie ici: ServerConnection lit le reseau, ce lecteur ne fait que reconnaitre les messages.
+ * */
+public class ProtocolReader {
+
+    static final int BOARD_LENGTH = 64;
+    static final int MOVE_LENGTH = 4;
+
+    private char command;
+    private int expected;
+    private final StringBuilder payload = new StringBuilder(BOARD_LENGTH);
+
+    /**
+     * consomme tous les octets restants de bytes et passe chaque message complet a messages, dans l'ordre.
+     * Un message incomplet est gardé jusqu'au prochain appel.
+     * */
+    public void feed(ByteBuffer bytes, Consumer<ServerMessage> messages) {
+        while (bytes.hasRemaining()) {
+            char c = (char) (bytes.get() & 0xFF);
+            if (command == 0) {
+                startCommand(c, messages);
+            } else if (isSignificant(c)) {
+                payload.append(Character.toUpperCase(c));
+                if (payload.length() == expected) {
+                    messages.accept(new ServerMessage(command, format(payload)));
+                    command = 0;
+                    payload.setLength(0);
+                }
+            }
+        }
+    }
+
+    private void startCommand(char c, Consumer<ServerMessage> messages) {
+        switch (c) {
+            case ServerMessage.NEW_GAME_WHITE, ServerMessage.NEW_GAME_BLACK -> expected = BOARD_LENGTH;
+            case ServerMessage.PLAY, ServerMessage.GAME_OVER -> expected = MOVE_LENGTH;
+            case ServerMessage.INVALID_MOVE -> {
+                messages.accept(new ServerMessage(c, ""));
+                return;
+            }
+            default -> {
+                // fin de ligne, octet nul ou reste d'un message precedent entre deux commandes
+                return;
+            }
+        }
+        command = c;
+    }
+
+    private boolean isSignificant(char c) {
+        if (expected == BOARD_LENGTH) {
+            return c >= '0' && c <= '9';
+        }
+        char upper = Character.toUpperCase(c);
+        return (upper >= 'A' && upper <= 'H') || (c >= '1' && c <= '8');
+    }
+
+    /**
+     * un coup "D6D8" devient "D6-D8", le format de Move.toString et de Plateau.toMove.
+     * */
+    private String format(StringBuilder payload) {
+        if (payload.length() == MOVE_LENGTH) {
+            return payload.substring(0, 2) + "-" + payload.substring(2);
+        }
+        return payload.toString();
+    }
+}
@@ -0,0 +1,141 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Publie par JMX les compteurs des recherches d'un joueur (voir SearchMetricsMXBean).
+ *
+ * La recherche ne touche jamais cet objet: elle compte dans le SearchStatistics de son Plateau, et record
+ * est appelé une fois par coup avec les compteurs deja additionnés. Le cout pendant la recherche est donc nul.
+ * */
+public class SearchMetrics implements SearchMetricsMXBean {
+
+    private static final String DOMAIN = "log320.eq306";
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final ObjectName name;
+    private long searches;
+    private long totalNodes;
+    private long totalNanos;
+    private SearchStatistics last = new SearchStatistics();
+    private long lastNanos;
+
+    private SearchMetrics(ObjectName name) {
+        this.name = name;
+    }
+
+    /**
+     * crée et enregistre les metriques; le premier joueur du processus est type=SearchMetrics, les suivants
+     * (tests de charge de LocalServer) ont en plus un numero d'instance.
+     * */
+    public static SearchMetrics register() {
+        int instance = INSTANCES.getAndIncrement();
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=SearchMetrics" + (instance == 0 ? "" : ",instance=" + instance));
+            SearchMetrics metrics = new SearchMetrics(name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, name);
+            return metrics;
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            // deja retiré
+        }
+    }
+
+    /**
+     * compteurs d'une recherche terminée; statistics est copié, l'appelant peut le reutiliser.
+     * */
+    public synchronized void record(SearchStatistics statistics, long elapsedNanos) {
+        searches++;
+        totalNodes += statistics.getNodes();
+        totalNanos += elapsedNanos;
+        last = statistics.copy();
+        lastNanos = elapsedNanos;
+    }
+
+    @Override
+    public synchronized long getSearches() {
+        return searches;
+    }
+
+    @Override
+    public synchronized long getTotalNodes() {
+        return totalNodes;
+    }
+
+    @Override
+    public synchronized long getTotalSearchMillis() {
+        return totalNanos / 1_000_000;
+    }
+
+    @Override
+    public synchronized long getAverageNodesPerSecond() {
+        return totalNanos == 0 ? 0 : totalNodes * 1_000_000_000L / totalNanos;
+    }
+
+    @Override
+    public synchronized long getLastNodes() {
+        return last.getNodes();
+    }
+
+    @Override
+    public synchronized long getLastNodesPerSecond() {
+        return lastNanos == 0 ? 0 : last.getNodes() * 1_000_000_000L / lastNanos;
+    }
+
+    @Override
+    public synchronized long getLastEvaluations() {
+        return last.getEvaluations();
+    }
+
+    @Override
+    public synchronized long getLastQuiescenceNodes() {
+        return last.getQuiescenceNodes();
+    }
+
+    @Override
+    public synchronized int getLastDepth() {
+        return last.getCompletedDepth();
+    }
+
+    @Override
+    public synchronized double getLastCutoffRate() {
+        return last.getCutoffRate();
+    }
+
+    @Override
+    public synchronized double getLastFirstMoveCutoffRate() {
+        return last.getFirstMoveCutoffRate();
+    }
+
+    @Override
+    public synchronized double getLastEffectiveBranchingFactor() {
+        return last.getEffectiveBranchingFactor();
+    }
+
+    @Override
+    public synchronized double getLastTableHitRate() {
+        return last.getTableHitRate();
+    }
+
+    @Override
+    public synchronized double getLastEvaluationCacheHitRate() {
+        return last.getEvaluationCacheHitRate();
+    }
+
+    @Override
+    public synchronized double[] getLastIterationMillis() {
+        return last.getIterationMillis();
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Metriques de recherche publiées par JMX (jconsole, VisualVM...): derniere recherche et totaux depuis le demarrage.
+ * Voir SearchMetrics et SearchStatistics.
+ * */
+public interface SearchMetricsMXBean {
+
+    long getSearches();
+
+    long getTotalNodes();
+
+    long getTotalSearchMillis();
+
+    /** noeuds par seconde sur toutes les recherches */
+    long getAverageNodesPerSecond();
+
+    long getLastNodes();
+
+    long getLastNodesPerSecond();
+
+    long getLastEvaluations();
+
+    long getLastQuiescenceNodes();
+
+    int getLastDepth();
+
+    double getLastCutoffRate();
+
+    double getLastFirstMoveCutoffRate();
+
+    double getLastEffectiveBranchingFactor();
+
+    double getLastTableHitRate();
+
+    double getLastEvaluationCacheHitRate();
+
+    /** duree de chaque iteration de la derniere recherche, index 0 pour la profondeur 1 */
+    double[] getLastIterationMillis();
+}
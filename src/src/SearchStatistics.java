@@ -0,0 +1,216 @@
+import java.util.Locale;
+
+/**
+ * Compteurs d'une recherche.
+ *
+ * Chaque Plateau a les siens et ne les partage avec aucun autre thread: ce sont de simples long incrementés
+ * dans algoMinMax, sans synchronisation. ParallelSearch additionne ceux de tous ses threads une fois
+ * la recherche finie (add), SearchMetrics les publie par JMX et toLogLine en fait une ligne de journal.
+ *
+ * Les temps et noeuds par iteration viennent d'un seul thread (le thread principal): les threads auxiliaires
+ * de Lazy SMP ne cherchent pas les memes profondeurs, les additionner ne voudrait rien dire.
+ * */
+public final class SearchStatistics {
+
+    /** noeuds de algoMinMax et de la quiescence */
+    long nodes;
+    long quiescenceNodes;
+    /** appels a evaluate, cache compris, et ceux trouvés dans le cache d'evaluation */
+    long evaluations;
+    long evaluationCacheHits;
+    /** noeuds ou l'on a commencé a essayer des coups (sans coupure par la table) */
+    long expandedNodes;
+    long cutoffs;
+    long firstMoveCutoffs;
+    long tableProbes;
+    long tableHits;
+    long tableCutoffs;
+    /** coups cherchés une seconde fois: fenetre nulle de PVS qui a echoué, fenetre d'aspiration trop etroite */
+    long pvsResearches;
+    long aspirationResearches;
+    /** recherche selective: coupures du coup nul, coups reduits puis cherchés de nouveau, coups elagués */
+    long nullMoveCutoffs;
+    long lateMoveReductions;
+    long lateMoveResearches;
+    long futilityPrunes;
+    /** parties simulées par MonteCarloSearch (nodes compte alors les positions de l'arbre et des parties simulées) */
+    long playouts;
+    int completedDepth;
+    final long[] iterationNanos = new long[Plateau.MAX_DEPTH + 1];
+    final long[] iterationNodes = new long[Plateau.MAX_DEPTH + 1];
+
+    void reset() {
+        nodes = 0;
+        quiescenceNodes = 0;
+        evaluations = 0;
+        evaluationCacheHits = 0;
+        expandedNodes = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        tableProbes = 0;
+        tableHits = 0;
+        tableCutoffs = 0;
+        pvsResearches = 0;
+        aspirationResearches = 0;
+        nullMoveCutoffs = 0;
+        lateMoveReductions = 0;
+        lateMoveResearches = 0;
+        futilityPrunes = 0;
+        playouts = 0;
+        completedDepth = 0;
+    }
+
+    /**
+     * ajoute les compteurs d'un autre thread; les iterations restent celles de ce thread-ci.
+     * */
+    void add(SearchStatistics other) {
+        nodes += other.nodes;
+        quiescenceNodes += other.quiescenceNodes;
+        evaluations += other.evaluations;
+        evaluationCacheHits += other.evaluationCacheHits;
+        expandedNodes += other.expandedNodes;
+        cutoffs += other.cutoffs;
+        firstMoveCutoffs += other.firstMoveCutoffs;
+        tableProbes += other.tableProbes;
+        tableHits += other.tableHits;
+        tableCutoffs += other.tableCutoffs;
+        pvsResearches += other.pvsResearches;
+        aspirationResearches += other.aspirationResearches;
+        nullMoveCutoffs += other.nullMoveCutoffs;
+        lateMoveReductions += other.lateMoveReductions;
+        lateMoveResearches += other.lateMoveResearches;
+        futilityPrunes += other.futilityPrunes;
+        playouts += other.playouts;
+    }
+
+    /**
+     * copie independante, pour garder les compteurs d'une recherche pendant que la suivante les remet a zero.
+     * */
+    SearchStatistics copy() {
+        SearchStatistics copy = new SearchStatistics();
+        copy.add(this);
+        copy.completedDepth = completedDepth;
+        System.arraycopy(iterationNanos, 0, copy.iterationNanos, 0, completedDepth + 1);
+        System.arraycopy(iterationNodes, 0, copy.iterationNodes, 0, completedDepth + 1);
+        return copy;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getQuiescenceNodes() {
+        return quiescenceNodes;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public long getPvsResearches() {
+        return pvsResearches;
+    }
+
+    public long getAspirationResearches() {
+        return aspirationResearches;
+    }
+
+    public long getNullMoveCutoffs() {
+        return nullMoveCutoffs;
+    }
+
+    public long getLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    public long getLateMoveResearches() {
+        return lateMoveResearches;
+    }
+
+    public long getFutilityPrunes() {
+        return futilityPrunes;
+    }
+
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * proportion des noeuds developpés qui se terminent par une coupure beta.
+     * */
+    public double getCutoffRate() {
+        return ratio(cutoffs, expandedNodes);
+    }
+
+    /**
+     * proportion des coupures faites par le premier coup essayé: mesure directe de la qualité de l'ordre des coups.
+     * */
+    public double getFirstMoveCutoffRate() {
+        return ratio(firstMoveCutoffs, cutoffs);
+    }
+
+    public double getTableHitRate() {
+        return ratio(tableHits, tableProbes);
+    }
+
+    public double getTableCutoffRate() {
+        return ratio(tableCutoffs, tableProbes);
+    }
+
+    /**
+     * proportion des evaluations trouvées dans le cache d'evaluation.
+     * */
+    public double getEvaluationCacheHitRate() {
+        return ratio(evaluationCacheHits, evaluations);
+    }
+
+    /**
+     * facteur de branchement effectif: noeuds de la derniere iteration complete divisés par ceux de la precedente.
+     * */
+    public double getEffectiveBranchingFactor() {
+        if (completedDepth < 2) {
+            return 0;
+        }
+        return ratio(iterationNodes[completedDepth], iterationNodes[completedDepth - 1]);
+    }
+
+    /**
+     * duree de chaque iteration complete en millisecondes, index 0 pour la profondeur 1.
+     * */
+    public double[] getIterationMillis() {
+        double[] millis = new double[completedDepth];
+        for (int depth = 1; depth <= completedDepth; depth++) {
+            millis[depth - 1] = iterationNanos[depth] / 1e6;
+        }
+        return millis;
+    }
+
+    /**
+     * cle=valeur separés par des espaces, facile a extraire des journaux pour faire des graphiques.
+     * */
+    public String toLogLine(long elapsedNanos) {
+        StringBuilder line = new StringBuilder();
+        line.append(String.format(Locale.ROOT,
+                "profondeur=%d ms=%d noeuds=%d noeuds_par_s=%d quiescence=%d evaluations=%d cache_eval=%.3f "
+                        + "taux_coupure=%.3f coupure_premier_coup=%.3f ebf=%.2f tt=%.3f tt_coupure=%.3f pvs=%d aspiration=%d "
+                        + "coup_nul=%d lmr=%d lmr_recherche=%d futilite=%d playouts=%d iterations_ms=",
+                completedDepth, elapsedNanos / 1_000_000, nodes,
+                elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos, quiescenceNodes, evaluations, getEvaluationCacheHitRate(),
+                getCutoffRate(), getFirstMoveCutoffRate(), getEffectiveBranchingFactor(),
+                getTableHitRate(), getTableCutoffRate(), pvsResearches, aspirationResearches,
+                nullMoveCutoffs, lateMoveReductions, lateMoveResearches, futilityPrunes, playouts));
+        double[] millis = getIterationMillis();
+        for (int i = 0; i < millis.length; i++) {
+            line.append(i == 0 ? "" : ",").append(String.format(Locale.ROOT, "%.1f", millis[i]));
+        }
+        return line.toString();
+    }
+
+    private static double ratio(long numerator, long denominator) {
+        return denominator == 0 ? 0 : (double) numerator / denominator;
+    }
+}
@@ -0,0 +1,105 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Connexion au serveur de jeu: un SocketChannel bloquant, lu et ecrit par le thread de la partie.
+ *
+ * take lit le reseau jusqu'a ce que le ProtocolReader ait reconnu un message complet, send ecrit le coup.
+ * Il n'y a pas de thread a part: le thread de la partie n'a rien d'autre a faire en attendant le serveur,
+ * les recherches tournent sur les threads de ParallelSearch et de Ponder. Sur un thread virtuel (GameHost),
+ * une lecture bloquée ne retient aucun thread du systeme: 100 parties ne coutent pas 100 threads ni 100 Selector.
+ *
+ * Une connexion n'est utilisée que par un seul thread; seul close peut etre appelé d'un autre.
+ * */
+public class ServerConnection implements Closeable {
+
+    private final SocketChannel channel;
+    private final ProtocolReader reader = new ProtocolReader();
+    private final Queue<ServerMessage> incoming = new ArrayDeque<>();
+    private final ByteBuffer buffer = ByteBuffer.allocate(4096);
+    private boolean ended;
+
+    private ServerConnection(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    }
+
+    /**
+     * se connecte (de facon bloquante, une seule fois).
+     * */
+    public static ServerConnection connect(String host, int port) throws IOException {
+        return new ServerConnection(SocketChannel.open(new InetSocketAddress(host, port)));
+    }
+
+    /**
+     * prochain message complet du serveur, en attendant s'il le faut; ServerMessage.END quand la connexion est fermée.
+     * Un message coupé en morceaux ou deux messages collés sont recollés ou separés par le ProtocolReader.
+     * */
+    public ServerMessage take() throws InterruptedException {
+        while (incoming.isEmpty() && !ended) {
+            read();
+        }
+        ServerMessage message = incoming.poll();
+        // les appels suivants doivent aussi voir la fin
+        return message != null ? message : ServerMessage.END;
+    }
+
+    /**
+     * envoie un coup (ou toute autre reponse). Si le reseau est coupé, le prochain take retourne ServerMessage.END.
+     * */
+    public void send(String message) {
+        ByteBuffer bytes = ByteBuffer.wrap(message.getBytes(StandardCharsets.US_ASCII));
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            lost(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void read() throws InterruptedException {
+        try {
+            if (channel.read(buffer) < 0) {
+                ended = true;
+                return;
+            }
+            buffer.flip();
+            reader.feed(buffer, incoming::add);
+            buffer.clear();
+        } catch (ClosedByInterruptException e) {
+            // le canal est fermé par l'interruption: la partie est finie pour ce thread
+            ended = true;
+            Thread.interrupted();
+            throw new InterruptedException("lecture interrompue");
+        } catch (IOException e) {
+            lost(e);
+        }
+    }
+
+    private void lost(IOException e) {
+        ended = true;
+        // close a pu etre appelé par un autre thread pendant la lecture: ce n'est pas une perte
+        if (channel.isOpen()) {
+            System.out.println("Connexion perdue: " + e);
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // deja fermé
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Un message complet du serveur de jeu: la commande ('1' a '5') et ce qui la suit, deja nettoyé par ProtocolReader.
+ *  - '1' (nouvelle partie, on joue blanc) et '2' (nouvelle partie, on joue noir): les 64 chiffres du plateau, de A8 a H1
+ *  - '3' (a nous de jouer) et '5' (partie terminée): le dernier coup joué, au format de Move.toString ("D6-D8")
+ *  - '4' (notre dernier coup est invalide): rien
+ * */
+public final class ServerMessage {
+
+    public static final char NEW_GAME_WHITE = '1';
+    public static final char NEW_GAME_BLACK = '2';
+    public static final char PLAY = '3';
+    public static final char INVALID_MOVE = '4';
+    public static final char GAME_OVER = '5';
+
+    /** pas une commande du serveur: la connexion est fermée, il n'y aura plus de message. */
+    public static final ServerMessage END = new ServerMessage((char) 0, "");
+
+    private final char command;
+    private final String payload;
+
+    public ServerMessage(char command, String payload) {
+        this.command = command;
+        this.payload = payload;
+    }
+
+    public char getCommand() {
+        return command;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public boolean isEnd() {
+        return this == END;
+    }
+
+    @Override
+    public String toString() {
+        return isEnd() ? "fin de connexion" : command + " " + payload;
+    }
+}
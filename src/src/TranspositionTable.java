@@ -0,0 +1,107 @@
+import java.util.Arrays;
+
+/**
+ * Table de transposition de taille fixe utilisée par algoMinMax.
+ *
+ * Chaque entrée tient dans deux long: la clé de Zobrist complete et les données compactées
+ *  - bits 0 a 31  : score (du point de vue de playerMax)
+ *  - bits 32 a 44 : meilleur coup (voir Move)
+ *  - bits 45 a 52 : profondeur restante de la recherche qui a produit le score
+ *  - bits 53 a 54 : type de borne (EXACT, LOWER_BOUND, UPPER_BOUND), jamais 0 pour une entrée remplie
+ *  - bits 55 a 62 : generation (numero de la recherche)
+ *
+ * Remplacement: une entrée d'une recherche precedente est toujours remplacée; dans la meme recherche
+ * on garde l'entrée la plus profonde, sauf si c'est la meme position.
+ *
+ * La table est partagée sans verrou par les threads de ParallelSearch: on range clé XOR données a la place
+ * de la clé. Si deux threads ecrivent la meme entrée en meme temps, la clé relue ne correspond plus
+ * aux données et probe voit simplement une entrée absente au lieu d'un melange des deux.
+ * */
+public class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    private static final int ENTRY_BYTES = 16;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private int generation;
+
+    /**
+     * sizeMb la memoire maximale de la table en megaoctets, arrondie a la puissance de 2 inferieure.
+     * */
+    public TranspositionTable(int sizeMb) {
+        long entries = Long.highestOneBit(Math.max(1L, (long) sizeMb * 1024 * 1024 / ENTRY_BYTES));
+        int size = (int) Math.min(entries, 1 << 30);
+        keys = new long[size];
+        data = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * a appeler avant chaque nouvelle recherche: les entrées plus anciennes deviennent remplacables.
+     * */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+    }
+
+    /**
+     * retourne les données de l'entrée pour cette clé, ou 0 si la position n'est pas dans la table.
+     * */
+    public long probe(long key) {
+        int index = (int) key & mask;
+        long entry = data[index];
+        if ((keys[index] ^ entry) == key) {
+            return entry;
+        }
+        return 0;
+    }
+
+    public void store(long key, int depth, int bound, int score, int move) {
+        int index = (int) key & mask;
+        long old = data[index];
+        boolean samePosition = (keys[index] ^ old) == key;
+        if (old != 0 && !samePosition && generation(old) == generation && depth(old) > depth) {
+            return;
+        }
+        if (old != 0 && samePosition && move == Move.NONE) {
+            move = move(old);
+        }
+
+        long entry = (score & 0xFFFFFFFFL)
+                | ((long) move << 32)
+                | ((long) Math.min(depth, 0xFF) << 45)
+                | ((long) bound << 53)
+                | ((long) generation << 55);
+        data[index] = entry;
+        keys[index] = key ^ entry;
+    }
+
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry >>> 32) & 0x1FFF;
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 45) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 53) & 0x3;
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> 55) & 0xFF;
+    }
+}
@@ -0,0 +1,44 @@
+import java.util.SplittableRandom;
+
+/**
+ * Clés de Zobrist: un nombre aleatoire de 64 bits par (camp, case) et un pour le trait.
+ * La clé d'un plateau est le XOR des nombres de chaque pion, Plateau la tient a jour a chaque setPiece.
+ * La graine est fixe pour que la meme position ait la meme clé d'une partie a l'autre.
+ * */
+public final class Zobrist {
+
+    private static final long[] PIECES_X = new long[64];
+    private static final long[] PIECES_O = new long[64];
+    private static final long SIDE_X;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x4C4F4132L);
+        for (int square = 0; square < 64; square++) {
+            PIECES_X[square] = random.nextLong();
+            PIECES_O[square] = random.nextLong();
+        }
+        SIDE_X = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * nombre associé a un pion ('X' ou 'O') sur une case, 0 pour une case vide.
+     * */
+    public static long piece(char player, int square) {
+        if (player == 'X') {
+            return PIECES_X[square];
+        } else if (player == 'O') {
+            return PIECES_O[square];
+        }
+        return 0;
+    }
+
+    /**
+     * a combiner avec la clé du plateau pour distinguer le joueur qui a le trait.
+     * */
+    public static long sideToMove(char player) {
+        return player == 'X' ? SIDE_X : 0;
+    }
+}